@@ -7,8 +7,10 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class TaskManagementSystemApplication {
 
 	public static void main(String[] args) {
@@ -29,7 +31,7 @@ public class TaskManagementSystemApplication {
 			try {
 				userService.saveUser(user);
 			} catch (Exception ignored){}
-			System.out.println("Demo user token: " + jwtProvider.generateToken(user.getEmail()));
+			System.out.println("Demo user token: " + jwtProvider.generateToken(userService.findByEmail(user.getEmail())));
 		};
 	}
 }
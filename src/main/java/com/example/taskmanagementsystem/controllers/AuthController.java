@@ -21,6 +21,8 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
 @SecurityRequirements
 @Tag(name = "User authorisation")
@@ -35,7 +37,8 @@ public class AuthController {
     @Operation(summary = "User registration.", description = "Allows to register a user in the system.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "User registered", content = @Content),
-            @ApiResponse(responseCode = "400", description = "Invalid Input Data", content = @Content)
+            @ApiResponse(responseCode = "400", description = "Invalid Input Data", content = @Content),
+            @ApiResponse(responseCode = "503", description = "Password hashing is overloaded, retry later", content = @Content)
     })
     @PostMapping("/register")
     public ResponseEntity<?> registerUser(@RequestBody @Valid RegistrationRequest registrationRequest){
@@ -47,6 +50,8 @@ public class AuthController {
                     .build();
             userService.saveUser(user);
             return ResponseEntity.ok().build();
+        } catch (RejectedExecutionException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -57,15 +62,18 @@ public class AuthController {
             @ApiResponse(responseCode = "200", description = "Authorisation successful",
                     content = {@Content(mediaType = "application/json",
                             schema = @Schema(implementation = AuthResponse.class)) }),
-            @ApiResponse(responseCode = "400", description = "Invalid Input Data", content = @Content)
+            @ApiResponse(responseCode = "400", description = "Invalid Input Data", content = @Content),
+            @ApiResponse(responseCode = "503", description = "Password hashing is overloaded, retry later", content = @Content)
     })
     @PostMapping("/auth")
     public ResponseEntity<AuthResponse> auth(@RequestBody @Valid AuthRequest authRequest) {
         try {
             User user = userService.findByEmailAndPassword(authRequest.getEmail(), authRequest.getPassword());
-            String token = jwtProvider.generateToken(user.getEmail());
+            String token = jwtProvider.generateToken(user);
             AuthResponse response = AuthResponse.builder().token(token).build();
             return ResponseEntity.ok(response);
+        } catch (RejectedExecutionException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
@@ -0,0 +1,52 @@
+package com.example.taskmanagementsystem.controllers;
+
+import com.example.taskmanagementsystem.dto.task.TaskOperation;
+import com.example.taskmanagementsystem.dto.task.TaskOperationResult;
+import com.example.taskmanagementsystem.models.User;
+import com.example.taskmanagementsystem.security.AuthenticatedUser;
+import com.example.taskmanagementsystem.services.TaskBatchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/batch")
+@Tag(name = "Task Api")
+public class BatchController {
+
+    @Autowired
+    private TaskBatchService taskBatchService;
+
+    @Operation(summary = "Executing task operations in batch.", description = "Allows to execute up to 1000 task " +
+            "operations in order: PATCH, ADD_ASSIGNEES, REMOVE_ASSIGNEES, ADD_COMMENT, REMOVE_COMMENT and DELETE. " +
+            "Every chunk of operations runs in one transaction. The first failing operation rolls its chunk back " +
+            "and stops the batch, the other operations of the chunk and the following ones get the status 424.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK, the result of every operation in the order of the operations",
+                    content = @Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = TaskOperationResult.class)))),
+            @ApiResponse(responseCode = "400", description = "Invalid batch or chunk size", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
+    })
+    @PostMapping
+    public ResponseEntity<List<TaskOperationResult>> executeOperations(
+            @RequestBody List<TaskOperation> operations,
+            @RequestParam(name = "chunk-size", required = false)
+            @Parameter(description = "Number of operations per transaction, all of them by default.\n\n" +
+                    "Minimum value 1.") Integer chunkSize) {
+        AuthenticatedUser principal = (AuthenticatedUser) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        User user = principal.toUser();
+        return ResponseEntity.ok(taskBatchService.executeOperations(operations, chunkSize, user));
+    }
+}
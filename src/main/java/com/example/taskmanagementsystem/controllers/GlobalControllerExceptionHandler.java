@@ -1,13 +1,20 @@
 package com.example.taskmanagementsystem.controllers;
 
+import com.example.taskmanagementsystem.services.TaskVersionMismatchException;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.OptimisticLockException;
 import lombok.extern.java.Log;
+import org.hibernate.StaleObjectStateException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.util.concurrent.RejectedExecutionException;
+
 @Log
 @RestControllerAdvice
 public class GlobalControllerExceptionHandler {
@@ -23,4 +30,24 @@ public class GlobalControllerExceptionHandler {
         log.severe(ex.getMessage());
         return  ResponseEntity.notFound().build();
     }
+
+    // a flush in a service is not translated by Spring, the JPA and Hibernate exceptions arrive as they are
+    @ExceptionHandler({OptimisticLockingFailureException.class, OptimisticLockException.class,
+            StaleObjectStateException.class})
+    public ResponseEntity<?> handleOptimisticLockingFailure(RuntimeException ex) {
+        log.warning(ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    @ExceptionHandler(TaskVersionMismatchException.class)
+    public ResponseEntity<?> handleTaskVersionMismatch(TaskVersionMismatchException ex) {
+        log.warning(ex.getMessage());
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<?> handleRejectedExecution(RejectedExecutionException ex) {
+        log.warning(ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
 }
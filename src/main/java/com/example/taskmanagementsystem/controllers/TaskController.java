@@ -1,13 +1,19 @@
 package com.example.taskmanagementsystem.controllers;
 
+import com.example.taskmanagementsystem.dto.CursorPage;
+import com.example.taskmanagementsystem.dto.task.TaskBulkUpdateRequest;
 import com.example.taskmanagementsystem.dto.task.TaskDto;
 import com.example.taskmanagementsystem.dto.task.TaskDtoConverter;
+import com.example.taskmanagementsystem.dto.task.TaskExportFormat;
+import com.example.taskmanagementsystem.dto.task.TaskFieldSelection;
+import com.example.taskmanagementsystem.dto.task.TaskFieldSelectionParameters;
 import com.example.taskmanagementsystem.dto.task.TaskRequest;
 import com.example.taskmanagementsystem.dto.task.TaskResponse;
+import com.example.taskmanagementsystem.dto.task.TaskSearchCriteria;
 import com.example.taskmanagementsystem.models.User;
+import com.example.taskmanagementsystem.security.AuthenticatedUser;
 import com.example.taskmanagementsystem.security.dto.AuthResponse;
 import com.example.taskmanagementsystem.services.TaskService;
-import com.example.taskmanagementsystem.services.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.Parameters;
@@ -20,16 +26,27 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.security.SecurityRequirements;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.Valid;
 import lombok.extern.java.Log;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/tasks")
@@ -37,41 +54,165 @@ import java.util.List;
 @Log
 public class TaskController {
 
-    @Autowired
-    private TaskService taskService;
+    public static final String NEXT_CURSOR = "X-Next-Cursor";
+    public static final String TOTAL_COUNT = "X-Total-Count";
 
     @Autowired
-    private UserService userService;
+    private TaskService taskService;
 
     @Autowired
     private TaskDtoConverter taskDtoConverter;
 
-    @Operation(summary = "Getting all the tasks.", description = "Allows to get all the tasks.")
+    @Operation(summary = "Getting all the tasks.", description = "Allows to get all the tasks page by page. " +
+            "The cursor of the next page is returned in the X-Next-Cursor header.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "OK",
                     content = @Content(mediaType = "application/json",
                             array = @ArraySchema(schema = @Schema(ref = "#/components/schemas/taskResponseSchema")))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or limit", content = @Content),
             @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
     })
     @GetMapping("/")
-    public ResponseEntity<List<TaskResponse>> getAllTasks(){
-        List<TaskResponse> tasks = taskService.findAllTasks().stream()
-                .map(taskDtoConverter::convertDtoToResponse).toList();
+    public ResponseEntity<List<TaskResponse>> getAllTasks(
+            @RequestParam(name = "after", required = false)
+            @Parameter(description = "Cursor returned in the X-Next-Cursor header of the previous page.") String after,
+            @RequestParam(name = "limit", defaultValue = "50")
+            @Parameter(description = "Page size.\n\nMinimum value 1.\n\nMaximum value 500.") Integer limit,
+            @ParameterObject TaskFieldSelectionParameters fieldSelection){
+        TaskFieldSelection selection = fieldSelection.toSelection();
+        CursorPage<TaskDto> page = taskService.findTasksAfter(after, limit, selection);
+        List<TaskResponse> tasks = page.getItems().stream()
+                .map(task -> taskDtoConverter.convertDtoToResponse(task, selection)).toList();
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR, page.getNextCursor())
+                    .header(HttpHeaders.LINK, "<" + ServletUriComponentsBuilder.fromCurrentRequest()
+                            .replaceQueryParam("after", page.getNextCursor())
+                            .replaceQueryParam("limit", limit)
+                            .toUriString() + ">; rel=\"next\"");
+        }
+        return response.body(tasks);
+    }
+
+    @Operation(summary = "Searching tasks.", description = "Allows to search tasks by status, priority, author, " +
+            "assignee and title prefix. The total number of found tasks is returned in the X-Total-Count header.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK",
+                    content = @Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(ref = "#/components/schemas/taskResponseSchema")))),
+            @ApiResponse(responseCode = "400", description = "Invalid input data", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
+    })
+    @GetMapping("/search")
+    public ResponseEntity<List<TaskResponse>> searchTasks(
+            @RequestParam(name = "status-value", required = false)
+            @Parameter(description = "Task status value.\n\nMinimum value 1.\n\nMaximum value 3.") Integer statusValue,
+            @RequestParam(name = "priority-value", required = false)
+            @Parameter(description = "Task priority value.\n\nMinimum value 1.\n\nMaximum value 3.") Integer priorityValue,
+            @RequestParam(name = "author-id", required = false)
+            @Parameter(description = "Task author identifier.") Long authorId,
+            @RequestParam(name = "assignee-id", required = false)
+            @Parameter(description = "Task assignee identifier.") Long assigneeId,
+            @RequestParam(name = "title", required = false)
+            @Parameter(description = "Task title prefix.") String title,
+            @RequestParam(name = "sort", required = false)
+            @Parameter(description = "Comma-separated sort keys: id, title, status, priority.\n\n" +
+                    "A leading '-' sorts in descending order, e.g. -priority,title.") List<String> sort,
+            @RequestParam(name = "page", defaultValue = "0")
+            @Parameter(description = "Page number, starting from 0.") Integer page,
+            @RequestParam(name = "size", defaultValue = "50")
+            @Parameter(description = "Page size.\n\nMinimum value 1.\n\nMaximum value 500.") Integer size,
+            @ParameterObject TaskFieldSelectionParameters fieldSelection){
+        TaskSearchCriteria criteria = TaskSearchCriteria.builder()
+                .statusValue(statusValue)
+                .priorityValue(priorityValue)
+                .authorId(authorId)
+                .assigneeId(assigneeId)
+                .titlePrefix(title)
+                .sort(sort)
+                .build();
+        TaskFieldSelection selection = fieldSelection.toSelection();
+        Page<TaskDto> tasks = taskService.searchTasks(criteria, page, size, selection);
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT, String.valueOf(tasks.getTotalElements()))
+                .body(tasks.map(task -> taskDtoConverter.convertDtoToResponse(task, selection)).getContent());
+    }
+
+    @Operation(summary = "Full-text search of tasks.", description = "Allows to search tasks by words in the title, " +
+            "description and comments. The most relevant tasks come first.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK",
+                    content = @Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(ref = "#/components/schemas/taskResponseSchema")))),
+            @ApiResponse(responseCode = "400", description = "Invalid input data", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
+    })
+    @GetMapping("/search/full-text")
+    public ResponseEntity<List<TaskResponse>> searchTasksByText(
+            @RequestParam(name = "query")
+            @Parameter(description = "Search words.") String query,
+            @RequestParam(name = "page", defaultValue = "0")
+            @Parameter(description = "Page number, starting from 0.") Integer page,
+            @RequestParam(name = "size", defaultValue = "50")
+            @Parameter(description = "Page size.\n\nMinimum value 1.\n\nMaximum value 500.") Integer size,
+            @ParameterObject TaskFieldSelectionParameters fieldSelection){
+        TaskFieldSelection selection = fieldSelection.toSelection();
+        List<TaskResponse> tasks = taskService.searchTasksByText(query, page, size, selection).stream()
+                .map(task -> taskDtoConverter.convertDtoToResponse(task, selection)).toList();
         return ResponseEntity.ok(tasks);
     }
 
-    @Operation(summary = "Getting task by Id.", description = "Allows to get task by Id.")
+    @Operation(summary = "Exporting all the tasks.", description = "Allows to export all the tasks as NDJSON or CSV. " +
+            "The rows are streamed from the database, so the export does not have to fit into memory.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK", content = {
+                    @Content(mediaType = "application/x-ndjson"),
+                    @Content(mediaType = "text/csv")
+            }),
+            @ApiResponse(responseCode = "400", description = "Invalid format", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTasks(
+            @RequestParam(name = "format", defaultValue = "ndjson")
+            @Parameter(description = "Export format: ndjson or csv.") String format){
+        TaskExportFormat exportFormat = TaskExportFormat.getByName(format);
+        StreamingResponseBody body = outputStream -> taskService.exportTasks(exportFormat, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("tasks." + exportFormat.name().toLowerCase()).build().toString())
+                .body(body);
+    }
+
+    @Operation(summary = "Getting task by Id.", description = "Allows to get task by Id. " +
+            "Only the latest comments are returned unless all the comments are requested.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "OK",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(ref = "#/components/schemas/taskResponseSchema"))),
+            @ApiResponse(responseCode = "304", description = "Not modified, the ETag matches If-None-Match", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Invalid fields or include", content = @Content),
             @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
             @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
     })
     @GetMapping("/{id}")
-    public ResponseEntity<TaskResponse> getTaskById(@PathVariable @Parameter(description = "Task identifier.") Long id){
-        TaskResponse task = taskDtoConverter.convertDtoToResponse(taskService.findTaskById(id));
-        return ResponseEntity.ok(task);
+    public ResponseEntity<TaskResponse> getTaskById(
+            @PathVariable @Parameter(description = "Task identifier.") Long id,
+            @RequestParam(name = "all-comments", defaultValue = "false")
+            @Parameter(description = "Whether to return all the comments instead of the latest ones.") Boolean allComments,
+            @ParameterObject TaskFieldSelectionParameters fieldSelection,
+            WebRequest request){
+        // answered from the version alone when the client already has it
+        TaskFieldSelection selection = fieldSelection.toSelection();
+        String eTag = getETag(id, selection);
+        if (request.checkNotModified(eTag))
+            return null;
+
+        TaskResponse task = taskDtoConverter.convertDtoToResponse(
+                taskService.findTaskById(id, allComments, selection), selection);
+        return ResponseEntity.ok().eTag(eTag).body(task);
     }
 
     @Operation(summary = "Creating task.", description = "Allows to create task.")
@@ -85,8 +226,8 @@ public class TaskController {
     })
     @PostMapping("/")
     public ResponseEntity<TaskResponse> addTask(@RequestBody TaskRequest taskRequest) throws URISyntaxException {
-        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        User user = userService.findByEmail(userDetails.getUsername());
+        AuthenticatedUser principal = (AuthenticatedUser) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        User user = principal.toUser();
         TaskDto taskDto = taskDtoConverter.convertRequestToDto(taskRequest);
         taskDto.setAuthor(user);
         TaskResponse task = taskDtoConverter.convertDtoToResponse(taskService.createTask(taskDto));
@@ -94,6 +235,67 @@ public class TaskController {
         return ResponseEntity.created(location).body(task);
     }
 
+    @Operation(summary = "Creating tasks in batch.", description = "Allows to create up to 1000 tasks at once. " +
+            "Either all the tasks are created or none of them.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Creating",
+                    content = @Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(ref = "#/components/schemas/taskResponseSchema")))),
+            @ApiResponse(responseCode = "400", description = "Invalid input data", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<List<TaskResponse>> addTasks(@RequestBody List<TaskRequest> taskRequests){
+        AuthenticatedUser principal = (AuthenticatedUser) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        User user = principal.toUser();
+        List<TaskDto> taskDtos = taskRequests.stream()
+                .map(taskRequest -> {
+                    TaskDto taskDto = taskDtoConverter.convertRequestToDto(taskRequest);
+                    taskDto.setAuthor(user);
+                    return taskDto;
+                }).toList();
+        List<TaskResponse> tasks = taskService.createTasks(taskDtos).stream()
+                .map(taskDtoConverter::convertDtoToResponse).toList();
+        return ResponseEntity.status(HttpStatus.CREATED).body(tasks);
+    }
+
+    @Operation(summary = "Updating tasks by filter.", description = "Allows to set the status or the priority of all the " +
+            "tasks matching the filter, or to replace the assignee of the filter by a new one. Only the tasks " +
+            "the user is allowed to change are updated: the status by the author or an assignee, the rest by the author.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(ref = "#/components/schemas/updatedSchema"))),
+            @ApiResponse(responseCode = "400", description = "Invalid input data", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
+    })
+    @PutMapping("/bulk")
+    public ResponseEntity<Map<String, Integer>> updateTasks(@RequestBody @Valid TaskBulkUpdateRequest request){
+        AuthenticatedUser principal = (AuthenticatedUser) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        User user = principal.toUser();
+        return ResponseEntity.ok(Map.of("updated", taskService.updateTasksByFilter(request, user)));
+    }
+
+    @Operation(summary = "Deleting tasks by Ids.", description = "Allows to delete up to 1000 tasks " +
+            "with their comments at once. Either all the tasks are deleted or none of them.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(ref = "#/components/schemas/deletedSchema"))),
+            @ApiResponse(responseCode = "400", description = "Invalid input data", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
+    })
+    @DeleteMapping("/")
+    public ResponseEntity<Map<String, Integer>> deleteTasks(
+            @RequestParam(name = "ids") @Parameter(description = "Comma-separated task identifiers.") List<Long> ids){
+        AuthenticatedUser principal = (AuthenticatedUser) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        User user = principal.toUser();
+        return ResponseEntity.ok(Map.of("deleted", taskService.deleteTasksByIds(ids, user)));
+    }
+
     @Operation(summary = "Deleting task by Id.", description = "Allows to delete task by Id.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "OK"),
@@ -102,9 +304,25 @@ public class TaskController {
     })
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteTask(@PathVariable @Parameter(description = "Task identifier.") Long id){
-        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        User user = userService.findByEmail(userDetails.getUsername());
+        AuthenticatedUser principal = (AuthenticatedUser) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        User user = principal.toUser();
         taskService.deleteTaskById(id, user);
         return ResponseEntity.ok().build();
     }
+
+    private String getETag(Long taskId) {
+        return "\"" + taskService.findTaskVersionById(taskId) + "\"";
+    }
+
+    /**
+     * A partial representation gets a weak ETag of the version and the selection, so that the ETag of one
+     * selection does not validate another one; only the strong ETag of the full task is accepted by If-Match.
+     */
+    private String getETag(Long taskId, TaskFieldSelection selection) {
+        if (selection.isFull())
+            return getETag(taskId);
+        String fields = TaskFieldSelection.FIELDS.stream().filter(selection::hasField).collect(Collectors.joining(","));
+        String include = TaskFieldSelection.INCLUDES.stream().filter(selection::includes).collect(Collectors.joining(","));
+        return "W/\"" + taskService.findTaskVersionById(taskId) + ";fields=" + fields + ";include=" + include + "\"";
+    }
 }
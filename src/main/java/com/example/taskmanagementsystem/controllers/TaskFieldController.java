@@ -1,17 +1,21 @@
 package com.example.taskmanagementsystem.controllers;
 
+import com.example.taskmanagementsystem.dto.CursorPage;
 import com.example.taskmanagementsystem.dto.comment.CommentDto;
 import com.example.taskmanagementsystem.dto.comment.CommentDtoConverter;
 import com.example.taskmanagementsystem.dto.comment.CommentResponse;
-import com.example.taskmanagementsystem.dto.task.TaskDto;
 import com.example.taskmanagementsystem.dto.user.UserResponse;
+import com.example.taskmanagementsystem.dto.user.UserResponseConverter;
+import com.example.taskmanagementsystem.dto.task.TaskDto;
 import com.example.taskmanagementsystem.dto.task.TaskDtoConverter;
+import com.example.taskmanagementsystem.dto.task.TaskPatchRequest;
 import com.example.taskmanagementsystem.dto.task.TaskResponse;
 import com.example.taskmanagementsystem.models.TaskPriority;
 import com.example.taskmanagementsystem.models.TaskStatus;
 import com.example.taskmanagementsystem.models.User;
+import com.example.taskmanagementsystem.security.AuthenticatedUser;
 import com.example.taskmanagementsystem.services.TaskService;
-import com.example.taskmanagementsystem.services.UserService;
+import com.example.taskmanagementsystem.services.TaskVersionMismatchException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -21,11 +25,15 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.java.Log;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.net.URI;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -35,11 +43,13 @@ import java.util.Map;
 @Tag(name = "Task Api")
 @Log
 public class TaskFieldController {
-    @Autowired
-    private TaskService taskService;
+    public static final String PREFER = "Prefer";
+    public static final String PREFERENCE_APPLIED = "Preference-Applied";
+    public static final String RETURN_REPRESENTATION = "return=representation";
+    public static final String MERGE_PATCH_JSON = "application/merge-patch+json";
 
     @Autowired
-    private UserService userService;
+    private TaskService taskService;
 
     @Autowired
     private TaskDtoConverter taskDtoConverter;
@@ -47,19 +57,25 @@ public class TaskFieldController {
     @Autowired
         private CommentDtoConverter commentDtoConverter;
 
+    @Autowired
+    private UserResponseConverter userResponseConverter;
+
     @Operation(summary = "Getting task id.", description = "Allows to get task id.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "OK",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(ref = "#/components/schemas/idSchema"))),
+            @ApiResponse(responseCode = "304", description = "Not modified, the ETag matches If-None-Match", content = @Content),
             @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
             @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
     })
     @GetMapping("/id")
     public ResponseEntity<Map<String, Long>> getId(
-            @PathVariable @Parameter(description = "Task identifier.") Long taskId) {
-        TaskResponse task = taskDtoConverter.convertDtoToResponse(taskService.findTaskById(taskId));
-        return ResponseEntity.ok(getResponse("id", task.getId()));
+            @PathVariable @Parameter(description = "Task identifier.") Long taskId, WebRequest request) {
+        String eTag = getETag(taskId);
+        if (request.checkNotModified(eTag))
+            return null;
+        return ResponseEntity.ok().eTag(eTag).body(getResponse("id", taskService.findTaskIdById(taskId)));
     }
 
     @Operation(summary = "Getting task title.", description = "Allows to get task title.")
@@ -67,33 +83,42 @@ public class TaskFieldController {
             @ApiResponse(responseCode = "200", description = "OK",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(ref = "#/components/schemas/titleSchema"))),
+            @ApiResponse(responseCode = "304", description = "Not modified, the ETag matches If-None-Match", content = @Content),
             @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
             @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
     })
     @GetMapping("/title")
     public ResponseEntity<Map<String, String>> getTitle(
-            @PathVariable @Parameter(description = "Task identifier.") Long taskId) {
-        TaskResponse task = taskDtoConverter.convertDtoToResponse(taskService.findTaskById(taskId));
-        return ResponseEntity.ok(getResponse("title", task.getTitle()));
+            @PathVariable @Parameter(description = "Task identifier.") Long taskId, WebRequest request) {
+        String eTag = getETag(taskId);
+        if (request.checkNotModified(eTag))
+            return null;
+        return ResponseEntity.ok().eTag(eTag).body(getResponse("title", taskService.findTaskTitleById(taskId)));
     }
 
     @Operation(summary = "Updating task title.", description = "Allows to update task title.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "OK",
+            @ApiResponse(responseCode = "200", description = "Updated, with Prefer: return=representation",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(ref = "#/components/schemas/taskResponseSchema"))),
+            @ApiResponse(responseCode = "204", description = "Updated, the new ETag is returned", content = @Content),
             @ApiResponse(responseCode = "400", description = "Invalid input data", content = @Content),
             @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
+            @ApiResponse(responseCode = "409", description = "The task was changed concurrently", content = @Content),
+            @ApiResponse(responseCode = "412", description = "The task has changed since the If-Match ETag", content = @Content),
             @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
     })
     @PutMapping("/title")
     public ResponseEntity<TaskResponse> updateTitle(
             @PathVariable @Parameter(description = "Task identifier.") Long taskId,
-            @RequestParam @Parameter(description = "Task title.\nMaximum length 255.") String title) {
+            @RequestParam @Parameter(description = "Task title.\nMaximum length 255.") String title,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false)
+            @Parameter(description = "ETag of the task the change is based on.") String ifMatch,
+            @RequestHeader(name = PREFER, required = false)
+            @Parameter(description = "return=representation to get the changed task, by default only its new ETag is returned.") String prefer) {
         User user = getUserOutOfContext();
-        TaskResponse task = taskDtoConverter.convertDtoToResponse(
-                taskService.updateTaskTitleById(taskId, title, user));
-        return ResponseEntity.ok(task);
+        Long version = taskService.updateTaskTitleById(taskId, title, user, getExpectedVersion(ifMatch));
+        return getUpdateResponse(taskId, version, prefer);
     }
 
     @Operation(summary = "Getting task description.", description = "Allows to get task description.")
@@ -101,33 +126,42 @@ public class TaskFieldController {
             @ApiResponse(responseCode = "200", description = "OK",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(ref = "#/components/schemas/descriptionSchema"))),
+            @ApiResponse(responseCode = "304", description = "Not modified, the ETag matches If-None-Match", content = @Content),
             @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
             @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
     })
     @GetMapping("/description")
     public ResponseEntity<Map<String, String>> getDescription(
-            @PathVariable @Parameter(description = "Task identifier.") Long taskId) {
-        TaskResponse task = taskDtoConverter.convertDtoToResponse(taskService.findTaskById(taskId));
-        return ResponseEntity.ok(getResponse("description", task.getDescription()));
+            @PathVariable @Parameter(description = "Task identifier.") Long taskId, WebRequest request) {
+        String eTag = getETag(taskId);
+        if (request.checkNotModified(eTag))
+            return null;
+        return ResponseEntity.ok().eTag(eTag).body(getResponse("description", taskService.findTaskDescriptionById(taskId)));
     }
 
     @Operation(summary = "Updating task description.", description = "Allows to update task description.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "OK",
+            @ApiResponse(responseCode = "200", description = "Updated, with Prefer: return=representation",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(ref = "#/components/schemas/taskResponseSchema"))),
+            @ApiResponse(responseCode = "204", description = "Updated, the new ETag is returned", content = @Content),
             @ApiResponse(responseCode = "400", description = "Invalid input data", content = @Content),
             @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
+            @ApiResponse(responseCode = "409", description = "The task was changed concurrently", content = @Content),
+            @ApiResponse(responseCode = "412", description = "The task has changed since the If-Match ETag", content = @Content),
             @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
     })
     @PutMapping("/description")
     public ResponseEntity<TaskResponse> updateDescription(
             @PathVariable @Parameter(description = "Task identifier.") Long taskId,
-            @RequestParam @Parameter(description = "Task description.") String description) {
+            @RequestParam @Parameter(description = "Task description.") String description,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false)
+            @Parameter(description = "ETag of the task the change is based on.") String ifMatch,
+            @RequestHeader(name = PREFER, required = false)
+            @Parameter(description = "return=representation to get the changed task, by default only its new ETag is returned.") String prefer) {
         User user = getUserOutOfContext();
-        TaskResponse task = taskDtoConverter.convertDtoToResponse(
-                taskService.updateTaskDescriptionById(taskId, description, user));
-        return ResponseEntity.ok(task);
+        Long version = taskService.updateTaskDescriptionById(taskId, description, user, getExpectedVersion(ifMatch));
+        return getUpdateResponse(taskId, version, prefer);
     }
 
     @Operation(summary = "Getting task status.", description = "Allows to get task status.")
@@ -135,34 +169,43 @@ public class TaskFieldController {
             @ApiResponse(responseCode = "200", description = "OK",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(ref = "#/components/schemas/statusSchema"))),
+            @ApiResponse(responseCode = "304", description = "Not modified, the ETag matches If-None-Match", content = @Content),
             @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
             @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
     })
     @GetMapping("/status")
     public ResponseEntity<Map<String, TaskStatus>> getStatus(
-            @PathVariable @Parameter(description = "Task identifier.") Long taskId) {
-        TaskDto task = taskService.findTaskById(taskId);
-        return ResponseEntity.ok(getResponse("status", task.getStatus()));
+            @PathVariable @Parameter(description = "Task identifier.") Long taskId, WebRequest request) {
+        String eTag = getETag(taskId);
+        if (request.checkNotModified(eTag))
+            return null;
+        return ResponseEntity.ok().eTag(eTag).body(getResponse("status", taskService.findTaskStatusById(taskId)));
     }
 
     @Operation(summary = "Updating task status.", description = "Allows to update task status.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "OK",
+            @ApiResponse(responseCode = "200", description = "Updated, with Prefer: return=representation",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(ref = "#/components/schemas/taskResponseSchema"))),
+            @ApiResponse(responseCode = "204", description = "Updated, the new ETag is returned", content = @Content),
             @ApiResponse(responseCode = "400", description = "Invalid input data", content = @Content),
             @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
+            @ApiResponse(responseCode = "409", description = "The task was changed concurrently", content = @Content),
+            @ApiResponse(responseCode = "412", description = "The task has changed since the If-Match ETag", content = @Content),
             @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
     })
     @PutMapping("/status")
     public ResponseEntity<TaskResponse> updateStatus(
             @PathVariable @Parameter(description = "Task identifier.") Long taskId,
             @RequestParam(name = "status-value")
-            @Parameter(description = "Task status value.\n\nMinimum value 1.\n\nMaximum value 3.") Integer statusValue) {
+            @Parameter(description = "Task status value.\n\nMinimum value 1.\n\nMaximum value 3.") Integer statusValue,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false)
+            @Parameter(description = "ETag of the task the change is based on.") String ifMatch,
+            @RequestHeader(name = PREFER, required = false)
+            @Parameter(description = "return=representation to get the changed task, by default only its new ETag is returned.") String prefer) {
         User user = getUserOutOfContext();
-        TaskResponse task = taskDtoConverter.convertDtoToResponse(
-                taskService.updateTaskStatusById(taskId, statusValue, user));
-        return ResponseEntity.ok(task);
+        Long version = taskService.updateTaskStatusById(taskId, statusValue, user, getExpectedVersion(ifMatch));
+        return getUpdateResponse(taskId, version, prefer);
     }
 
     @Operation(summary = "Getting task priority.", description = "Allows to get task priority.")
@@ -170,34 +213,70 @@ public class TaskFieldController {
             @ApiResponse(responseCode = "200", description = "OK",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(ref = "#/components/schemas/prioritySchema"))),
+            @ApiResponse(responseCode = "304", description = "Not modified, the ETag matches If-None-Match", content = @Content),
             @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
             @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
     })
     @GetMapping("/priority")
     public ResponseEntity<Map<String, TaskPriority>> getPriority(
-            @PathVariable @Parameter(description = "Task identifier.") Long taskId) {
-        TaskDto task = taskService.findTaskById(taskId);
-        return ResponseEntity.ok(getResponse("priority", task.getPriority()));
+            @PathVariable @Parameter(description = "Task identifier.") Long taskId, WebRequest request) {
+        String eTag = getETag(taskId);
+        if (request.checkNotModified(eTag))
+            return null;
+        return ResponseEntity.ok().eTag(eTag).body(getResponse("priority", taskService.findTaskPriorityById(taskId)));
     }
 
     @Operation(summary = "Updating task priority.", description = "Allows to update task priority.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "OK",
+            @ApiResponse(responseCode = "200", description = "Updated, with Prefer: return=representation",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(ref = "#/components/schemas/taskResponseSchema"))),
+            @ApiResponse(responseCode = "204", description = "Updated, the new ETag is returned", content = @Content),
             @ApiResponse(responseCode = "400", description = "Invalid input data", content = @Content),
             @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
+            @ApiResponse(responseCode = "409", description = "The task was changed concurrently", content = @Content),
+            @ApiResponse(responseCode = "412", description = "The task has changed since the If-Match ETag", content = @Content),
             @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
     })
     @PutMapping("/priority")
     public ResponseEntity<TaskResponse> updatePriority(
             @PathVariable @Parameter(description = "Task identifier.") Long taskId,
             @RequestParam(name = "priority-value")
-            @Parameter(description = "Task priority value.\n\nMinimum value 1.\n\nMaximum value 3.") Integer priorityValue) {
+            @Parameter(description = "Task priority value.\n\nMinimum value 1.\n\nMaximum value 3.") Integer priorityValue,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false)
+            @Parameter(description = "ETag of the task the change is based on.") String ifMatch,
+            @RequestHeader(name = PREFER, required = false)
+            @Parameter(description = "return=representation to get the changed task, by default only its new ETag is returned.") String prefer) {
         User user = getUserOutOfContext();
-        TaskResponse task = taskDtoConverter.convertDtoToResponse(
-                taskService.updateTaskPriorityById(taskId, priorityValue, user));
-        return ResponseEntity.ok(task);
+        Long version = taskService.updateTaskPriorityById(taskId, priorityValue, user, getExpectedVersion(ifMatch));
+        return getUpdateResponse(taskId, version, prefer);
+    }
+
+    @Operation(summary = "Updating task fields.", description = "Allows to update the title, description, status and " +
+            "priority at once with a JSON Merge Patch: the missing fields are kept, a null description is cleared to an empty one. " +
+            "The status alone may be changed by an assignee, the other fields only by the author.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Updated, with Prefer: return=representation",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(ref = "#/components/schemas/taskResponseSchema"))),
+            @ApiResponse(responseCode = "204", description = "Updated, the new ETag is returned", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Invalid input data", content = @Content),
+            @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
+            @ApiResponse(responseCode = "409", description = "The task was changed concurrently", content = @Content),
+            @ApiResponse(responseCode = "412", description = "The task has changed since the If-Match ETag", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
+    })
+    @PatchMapping(consumes = {MERGE_PATCH_JSON, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<TaskResponse> patchTask(
+            @PathVariable @Parameter(description = "Task identifier.") Long taskId,
+            @RequestBody TaskPatchRequest patch,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false)
+            @Parameter(description = "ETag of the task the change is based on.") String ifMatch,
+            @RequestHeader(name = PREFER, required = false)
+            @Parameter(description = "return=representation to get the changed task, by default only its new ETag is returned.") String prefer) {
+        User user = getUserOutOfContext();
+        Long version = taskService.patchTaskById(taskId, patch, user, getExpectedVersion(ifMatch));
+        return getUpdateResponse(taskId, version, prefer);
     }
 
     @Operation(summary = "Getting task author.", description = "Allows to get task author.")
@@ -205,14 +284,18 @@ public class TaskFieldController {
             @ApiResponse(responseCode = "200", description = "OK",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(ref = "#/components/schemas/authorSchema"))),
+            @ApiResponse(responseCode = "304", description = "Not modified, the ETag matches If-None-Match", content = @Content),
             @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
             @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
     })
     @GetMapping("/author")
     public ResponseEntity<Map<String, UserResponse>> getAuthor(
-            @PathVariable @Parameter(description = "Task identifier.") Long taskId) {
-        TaskResponse task = taskDtoConverter.convertDtoToResponse(taskService.findTaskById(taskId));
-        return ResponseEntity.ok(getResponse("author", task.getAuthor()));
+            @PathVariable @Parameter(description = "Task identifier.") Long taskId, WebRequest request) {
+        String eTag = getETag(taskId);
+        if (request.checkNotModified(eTag))
+            return null;
+        UserResponse author = userResponseConverter.convertUserToResponse(taskService.findTaskAuthorById(taskId));
+        return ResponseEntity.ok().eTag(eTag).body(getResponse("author", author));
     }
 
     @Operation(summary = "Getting task assignees.", description = "Allows to get task assignees.")
@@ -220,112 +303,161 @@ public class TaskFieldController {
             @ApiResponse(responseCode = "200", description = "OK",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(ref = "#/components/schemas/assigneesSchema"))),
+            @ApiResponse(responseCode = "304", description = "Not modified, the ETag matches If-None-Match", content = @Content),
             @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
             @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
     })
     @GetMapping("/assignees")
     public ResponseEntity<Map<String, List<UserResponse>>> getAssignees(
-            @PathVariable @Parameter(description = "Task identifier.") Long taskId) {
-        TaskResponse task = taskDtoConverter.convertDtoToResponse(taskService.findTaskById(taskId));
-        return ResponseEntity.ok(getResponse("assignees", task.getAssignees()));
+            @PathVariable @Parameter(description = "Task identifier.") Long taskId, WebRequest request) {
+        String eTag = getETag(taskId);
+        if (request.checkNotModified(eTag))
+            return null;
+        List<UserResponse> assignees = taskService.findTaskAssigneesById(taskId).stream()
+                .map(userResponseConverter::convertUserToResponse)
+                .toList();
+        return ResponseEntity.ok().eTag(eTag).body(getResponse("assignees", assignees));
     }
 
-    @Operation(summary = "Adding task assignee.", description = "Allows to add task assignee.")
+    @Operation(summary = "Adding task assignees.", description = "Allows to add one or many task assignees " +
+            "by id and by email. The users already assigned are skipped.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "OK",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(ref = "#/components/schemas/taskResponseSchema"))),
             @ApiResponse(responseCode = "400", description = "Invalid input data", content = @Content),
             @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
+            @ApiResponse(responseCode = "409", description = "The task was changed concurrently", content = @Content),
+            @ApiResponse(responseCode = "412", description = "The task has changed since the If-Match ETag", content = @Content),
             @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
     })
     @PostMapping("/assignees")
     public ResponseEntity<TaskResponse> addAssignee(
             @PathVariable @Parameter(description = "Task identifier.") Long taskId,
             @RequestParam(name = "assignee-id", required = false)
-            @Parameter(description = "Task assignee identifier.") Long assigneeId,
+            @Parameter(description = "Task assignee identifiers, the parameter may be repeated.") List<Long> assigneeIds,
             @RequestParam(name = "assignee-email", required = false)
-            @Parameter(description = "Task assignee email.\n\nMaximum length 255.") String assigneeEmail) {
-        User user = getUserOutOfContext();
-        if (assigneeId != null) {
-            TaskResponse task = taskDtoConverter.convertDtoToResponse(
-                    taskService.appendAssigneeByIdInTask(taskId, assigneeId, user));
-            return ResponseEntity.ok(task);
-        }
-        else if (assigneeEmail != null) {
-            TaskResponse task = taskDtoConverter.convertDtoToResponse(
-                    taskService.appendAssigneeByEmailInTask(taskId, assigneeEmail, user));
-            return ResponseEntity.ok(task);
-        }
-        else
+            @Parameter(description = "Task assignee emails, the parameter may be repeated.\n\nMaximum length 255.") List<String> assigneeEmails,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false)
+            @Parameter(description = "ETag of the task the change is based on.") String ifMatch) {
+        List<Long> ids = getValues(assigneeIds);
+        List<String> emails = getValues(assigneeEmails);
+        if (ids.isEmpty() && emails.isEmpty())
             return ResponseEntity.badRequest().build();
+
+        User user = getUserOutOfContext();
+        return getTaskResponse(
+                taskService.appendAssigneesInTask(taskId, ids, emails, user, getExpectedVersion(ifMatch)));
     }
 
-    @Operation(summary = "Deleting task assignee.", description = "Allows to delete task assignee.")
+    @Operation(summary = "Deleting task assignees.", description = "Allows to delete one or many task assignees " +
+            "by id and by email. Nothing is deleted when one of them is not assigned.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "OK",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(ref = "#/components/schemas/taskResponseSchema"))),
             @ApiResponse(responseCode = "400", description = "Invalid input data", content = @Content),
             @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
+            @ApiResponse(responseCode = "409", description = "The task was changed concurrently", content = @Content),
+            @ApiResponse(responseCode = "412", description = "The task has changed since the If-Match ETag", content = @Content),
             @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
     })
     @DeleteMapping("/assignees")
     public ResponseEntity<TaskResponse> deleteAssignee(
             @PathVariable @Parameter(description = "Task identifier.") Long taskId,
             @RequestParam(name = "assignee-id", required = false)
-            @Parameter(description = "Task assignee identifier.") Long assigneeId,
+            @Parameter(description = "Task assignee identifiers, the parameter may be repeated.") List<Long> assigneeIds,
             @RequestParam(name = "assignee-email", required = false)
-            @Parameter(description = "Task assignee email.\n\nMaximum length 255.") String assigneeEmail) {
-        User user = getUserOutOfContext();
-        if (assigneeId != null) {
-            TaskResponse task = taskDtoConverter.convertDtoToResponse(
-                    taskService.removeAssigneeByIdInTask(taskId, assigneeId, user));
-            return ResponseEntity.ok(task);
-        }
-        else if (assigneeEmail != null) {
-            TaskResponse task = taskDtoConverter.convertDtoToResponse(
-                    taskService.removeAssigneeByEmailInTask(taskId, assigneeEmail, user));
-            return ResponseEntity.ok(task);
-        }
-        else
+            @Parameter(description = "Task assignee emails, the parameter may be repeated.\n\nMaximum length 255.") List<String> assigneeEmails,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false)
+            @Parameter(description = "ETag of the task the change is based on.") String ifMatch) {
+        List<Long> ids = getValues(assigneeIds);
+        List<String> emails = getValues(assigneeEmails);
+        if (ids.isEmpty() && emails.isEmpty())
             return ResponseEntity.badRequest().build();
+
+        User user = getUserOutOfContext();
+        return getTaskResponse(
+                taskService.removeAssigneesInTask(taskId, ids, emails, user, getExpectedVersion(ifMatch)));
     }
 
-    @Operation(summary = "Getting task comments.", description = "Allows to get task comments.")
+    @Operation(summary = "Getting task comments.", description = "Allows to get task comments page by page, " +
+            "oldest first. The cursor of the next page is returned in the X-Next-Cursor header.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "OK",
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(ref = "#/components/schemas/commentsSchema"))),
+            @ApiResponse(responseCode = "304", description = "Not modified, the ETag matches If-None-Match", content = @Content),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or limit", content = @Content),
             @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
             @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
     })
     @GetMapping("/comments")
     public ResponseEntity<Map<String, List<CommentResponse>>> getComments(
-            @PathVariable @Parameter(description = "Task identifier.") Long taskId) {
-        TaskResponse task = taskDtoConverter.convertDtoToResponse(taskService.findTaskById(taskId));
-        return ResponseEntity.ok(getResponse("comments", task.getComments()));
+            @PathVariable @Parameter(description = "Task identifier.") Long taskId,
+            @RequestParam(name = "cursor", required = false)
+            @Parameter(description = "Cursor returned in the X-Next-Cursor header of the previous page.") String cursor,
+            @RequestParam(name = "limit", defaultValue = "50")
+            @Parameter(description = "Page size.\n\nMinimum value 1.\n\nMaximum value 500.") Integer limit,
+            WebRequest request) {
+        String eTag = getETag(taskId);
+        if (request.checkNotModified(eTag))
+            return null;
+
+        CursorPage<CommentDto> page = taskService.findTaskCommentsAfter(taskId, cursor, limit);
+        List<CommentResponse> comments = page.getItems().stream()
+                .map(commentDtoConverter::convertDtoToResponse)
+                .toList();
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(eTag);
+        if (page.getNextCursor() != null)
+            response.header(TaskController.NEXT_CURSOR, page.getNextCursor());
+        return response.body(getResponse("comments", comments));
     }
 
-    @Operation(summary = "Adding task comment.", description = "Allows to add task comment.")
+    @Operation(summary = "Getting task comment.", description = "Allows to get one comment of the task.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "OK",
                     content = @Content(mediaType = "application/json",
-                            schema = @Schema(ref = "#/components/schemas/taskResponseSchema"))),
+                            schema = @Schema(implementation = CommentResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
+            @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
+    })
+    @GetMapping("/comments/{commentId}")
+    public ResponseEntity<CommentResponse> getComment(
+            @PathVariable @Parameter(description = "Task identifier.") Long taskId,
+            @PathVariable @Parameter(description = "Task comment identifier.") Long commentId) {
+        return ResponseEntity.ok(commentDtoConverter.convertDtoToResponse(taskService.findTaskCommentById(taskId, commentId)));
+    }
+
+    @Operation(summary = "Adding task comment.", description = "Allows to add task comment. Only the created comment " +
+            "is returned, the task is neither loaded nor returned.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Created",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = CommentResponse.class))),
             @ApiResponse(responseCode = "400", description = "Invalid input data", content = @Content),
             @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
+            @ApiResponse(responseCode = "412", description = "The task has changed since the If-Match ETag", content = @Content),
             @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
     })
     @PostMapping("/comments")
-    public ResponseEntity<TaskResponse> addComment(
+    public ResponseEntity<CommentResponse> addComment(
             @PathVariable @Parameter(description = "Task identifier.") Long taskId,
             @RequestParam(name = "comment-text")
-            @Parameter(description = "Task comment text.") String commentText) {
+            @Parameter(description = "Task comment text.") String commentText,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false)
+            @Parameter(description = "ETag of the task the change is based on.") String ifMatch) {
         CommentDto commentDto = commentDtoConverter.convertRequestToDto(commentText);
         User user = getUserOutOfContext();
-        TaskResponse task = taskDtoConverter.convertDtoToResponse(
-                taskService.appendCommentInTask(taskId, commentDto, user));
-        return ResponseEntity.ok(task);
+        CommentResponse comment = commentDtoConverter.convertDtoToResponse(
+                taskService.appendCommentInTask(taskId, commentDto, user, getExpectedVersion(ifMatch)));
+        // the comment-text parameter of the request is not part of the location
+        URI location = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                .path("/{commentId}")
+                .buildAndExpand(comment.getId())
+                .toUri();
+        return ResponseEntity.created(location).body(comment);
     }
 
     @Operation(summary = "Deleting task comment.", description = "Allows to delete task comment.")
@@ -335,17 +467,27 @@ public class TaskFieldController {
                             schema = @Schema(ref = "#/components/schemas/taskResponseSchema"))),
             @ApiResponse(responseCode = "400", description = "Invalid input data", content = @Content),
             @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
+            @ApiResponse(responseCode = "409", description = "The task was changed concurrently", content = @Content),
+            @ApiResponse(responseCode = "412", description = "The task has changed since the If-Match ETag", content = @Content),
             @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
     })
     @DeleteMapping("/comments")
     public ResponseEntity<TaskResponse> deleteComment(
             @PathVariable @Parameter(description = "Task identifier.") Long taskId,
             @RequestParam(name = "comment-id")
-            @Parameter(description = "Task comment identifier.") Long commentId) {
+            @Parameter(description = "Task comment identifier.") Long commentId,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false)
+            @Parameter(description = "ETag of the task the change is based on.") String ifMatch) {
         User user = getUserOutOfContext();
-        TaskResponse task = taskDtoConverter.convertDtoToResponse(
-                taskService.removeCommentByIdInTask(taskId, commentId, user));
-        return ResponseEntity.ok(task);
+        return getTaskResponse(
+                taskService.removeCommentByIdInTask(taskId, commentId, user, getExpectedVersion(ifMatch)));
+    }
+
+    // a repeated parameter without value is bound as null or blank
+    private <T> List<T> getValues(List<T> values) {
+        return values == null ? List.of() : values.stream()
+                .filter(value -> value != null && !value.toString().isBlank())
+                .toList();
     }
 
     private <T> Map<String, T> getResponse(String key, T value) {
@@ -354,8 +496,48 @@ public class TaskFieldController {
         return response;
     }
 
+    // the task version, read without loading the task
+    private String getETag(Long taskId) {
+        return toETag(taskService.findTaskVersionById(taskId));
+    }
+
+    private String toETag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    // RFC 7240: the whole task is loaded only when the client asks for it
+    private ResponseEntity<TaskResponse> getUpdateResponse(Long taskId, Long version, String prefer) {
+        if (prefer == null || !prefer.contains(RETURN_REPRESENTATION))
+            return ResponseEntity.noContent().eTag(toETag(version)).build();
+
+        TaskDto task = taskService.findTaskById(taskId);
+        return ResponseEntity.ok()
+                .eTag(toETag(task.getVersion()))
+                .header(PREFERENCE_APPLIED, RETURN_REPRESENTATION)
+                .body(taskDtoConverter.convertDtoToResponse(task));
+    }
+
+    // the changed task is returned with the ETag of the version written
+    private ResponseEntity<TaskResponse> getTaskResponse(TaskDto task) {
+        return ResponseEntity.ok().eTag(toETag(task.getVersion())).body(taskDtoConverter.convertDtoToResponse(task));
+    }
+
+    // If-Match holds a strong ETag made by toETag; without it, or with "*", the change applies to any version
+    private Long getExpectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*"))
+            return null;
+
+        String eTag = ifMatch.trim();
+        try {
+            if (eTag.length() > 2 && eTag.startsWith("\"") && eTag.endsWith("\""))
+                return Long.valueOf(eTag.substring(1, eTag.length() - 1));
+        } catch (NumberFormatException ignored) {
+        }
+        throw new TaskVersionMismatchException("If-Match " + ifMatch + " is not an ETag of the task");
+    }
+
     private User getUserOutOfContext() {
-        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        return userService.findByEmail(userDetails.getUsername());
+        AuthenticatedUser principal = (AuthenticatedUser) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        return principal.toUser();
     }
 }
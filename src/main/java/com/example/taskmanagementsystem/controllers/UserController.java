@@ -3,8 +3,11 @@ package com.example.taskmanagementsystem.controllers;
 import com.example.taskmanagementsystem.dto.user.UserResponse;
 import com.example.taskmanagementsystem.dto.user.UserResponseConverter;
 import com.example.taskmanagementsystem.dto.task.TaskDtoConverter;
+import com.example.taskmanagementsystem.dto.task.TaskFieldSelection;
+import com.example.taskmanagementsystem.dto.task.TaskFieldSelectionParameters;
 import com.example.taskmanagementsystem.dto.task.TaskResponse;
 import com.example.taskmanagementsystem.models.User;
+import com.example.taskmanagementsystem.security.AuthenticatedUser;
 import com.example.taskmanagementsystem.services.TaskService;
 import com.example.taskmanagementsystem.services.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -16,6 +19,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.java.Log;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -188,15 +192,18 @@ public class UserController {
             @ApiResponse(responseCode = "200", description = "OK",
                     content = @Content(mediaType = "application/json",
                             array = @ArraySchema(schema = @Schema(ref = "#/components/schemas/taskResponseSchema")))),
+            @ApiResponse(responseCode = "400", description = "Invalid fields or include", content = @Content),
             @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
             @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
     })
     @GetMapping("/{id}/created-tasks")
     public ResponseEntity<List<TaskResponse>> getTasksCreatedByUser(
-            @PathVariable @Parameter(description = "User identifier.") Long id){
+            @PathVariable @Parameter(description = "User identifier.") Long id,
+            @ParameterObject TaskFieldSelectionParameters fieldSelection){
         User user = userService.findById(id);
-        List<TaskResponse> tasks = taskService.findAllTasksByAuthor(user).stream()
-                .map(taskDtoConverter::convertDtoToResponse)
+        TaskFieldSelection selection = fieldSelection.toSelection();
+        List<TaskResponse> tasks = taskService.findAllTasksByAuthor(user, selection).stream()
+                .map(task -> taskDtoConverter.convertDtoToResponse(task, selection))
                 .toList();
         return ResponseEntity.ok(tasks);
     }
@@ -207,15 +214,18 @@ public class UserController {
             @ApiResponse(responseCode = "200", description = "OK",
                     content = @Content(mediaType = "application/json",
                             array = @ArraySchema(schema = @Schema(ref = "#/components/schemas/taskResponseSchema")))),
+            @ApiResponse(responseCode = "400", description = "Invalid fields or include", content = @Content),
             @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
             @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
     })
     @GetMapping("/{id}/assigned-tasks")
     public ResponseEntity<List<TaskResponse>> getTasksAssignedToUser(
-            @PathVariable @Parameter(description = "User identifier.") Long id){
+            @PathVariable @Parameter(description = "User identifier.") Long id,
+            @ParameterObject TaskFieldSelectionParameters fieldSelection){
         User user = userService.findById(id);
-        List<TaskResponse> tasks = taskService.findAllTasksByAssignee(user).stream()
-                .map(taskDtoConverter::convertDtoToResponse)
+        TaskFieldSelection selection = fieldSelection.toSelection();
+        List<TaskResponse> tasks = taskService.findAllTasksByAssignee(user, selection).stream()
+                .map(task -> taskDtoConverter.convertDtoToResponse(task, selection))
                 .toList();
         return ResponseEntity.ok(tasks);
     }
@@ -226,15 +236,18 @@ public class UserController {
             @ApiResponse(responseCode = "200", description = "OK",
                     content = @Content(mediaType = "application/json",
                             array = @ArraySchema(schema = @Schema(ref = "#/components/schemas/taskResponseSchema")))),
+            @ApiResponse(responseCode = "400", description = "Invalid fields or include", content = @Content),
             @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
             @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
     })
     @GetMapping("/me/created-tasks")
-    public ResponseEntity<List<TaskResponse>> getTasksCreatedByMe(){
-        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        User user = userService.findByEmail(userDetails.getUsername());
-        List<TaskResponse> tasks = taskService.findAllTasksByAuthor(user).stream()
-                .map(taskDtoConverter::convertDtoToResponse)
+    public ResponseEntity<List<TaskResponse>> getTasksCreatedByMe(
+            @ParameterObject TaskFieldSelectionParameters fieldSelection){
+        AuthenticatedUser principal = (AuthenticatedUser) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        User user = principal.toUser();
+        TaskFieldSelection selection = fieldSelection.toSelection();
+        List<TaskResponse> tasks = taskService.findAllTasksByAuthor(user, selection).stream()
+                .map(task -> taskDtoConverter.convertDtoToResponse(task, selection))
                 .toList();
         return ResponseEntity.ok(tasks);
     }
@@ -245,15 +258,18 @@ public class UserController {
             @ApiResponse(responseCode = "200", description = "OK",
                     content = @Content(mediaType = "application/json",
                             array = @ArraySchema(schema = @Schema(ref = "#/components/schemas/taskResponseSchema")))),
+            @ApiResponse(responseCode = "400", description = "Invalid fields or include", content = @Content),
             @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
             @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
     })
     @GetMapping("/me/assigned-tasks")
-    public ResponseEntity<List<TaskResponse>> getTasksAssignedToMe(){
-        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        User user = userService.findByEmail(userDetails.getUsername());
-        List<TaskResponse> tasks = taskService.findAllTasksByAssignee(user).stream()
-                .map(taskDtoConverter::convertDtoToResponse)
+    public ResponseEntity<List<TaskResponse>> getTasksAssignedToMe(
+            @ParameterObject TaskFieldSelectionParameters fieldSelection){
+        AuthenticatedUser principal = (AuthenticatedUser) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        User user = principal.toUser();
+        TaskFieldSelection selection = fieldSelection.toSelection();
+        List<TaskResponse> tasks = taskService.findAllTasksByAssignee(user, selection).stream()
+                .map(task -> taskDtoConverter.convertDtoToResponse(task, selection))
                 .toList();
         return ResponseEntity.ok(tasks);
     }
@@ -301,7 +317,8 @@ public class UserController {
                             schema = @Schema(implementation = UserResponse.class))),
             @ApiResponse(responseCode = "400", description = "Invalid input data", content = @Content),
             @ApiResponse(responseCode = "404", description = "Not found", content = @Content),
-            @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content)
+            @ApiResponse(responseCode = "403", description = "Unauthorized / Invalid Token", content = @Content),
+            @ApiResponse(responseCode = "503", description = "Password hashing is overloaded, retry later", content = @Content)
     })
     @PutMapping("/me/password")
     public ResponseEntity<?> updatePassword(
@@ -319,7 +336,8 @@ public class UserController {
     }
 
     private User getUserOutOfContext() {
-        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        return userService.findByEmail(userDetails.getUsername());
+        AuthenticatedUser principal = (AuthenticatedUser) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        // the name in the token may be older than the stored one, the user itself comes from the entity cache
+        return userService.findById(principal.getId());
     }
 }
@@ -0,0 +1,69 @@
+package com.example.taskmanagementsystem.diagnostics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Streams the JFR {@code jdk.VirtualThreadPinned} events, emitted when a virtual thread blocks
+ * while pinned to its carrier (inside a synchronized block or a native frame).
+ * Every pinning longer than the threshold is logged with its stack and recorded in the
+ * {@code jvm.threads.virtual.pinned} timer. The event exists from Java 21, on older runtimes nothing is recorded.
+ */
+@Log
+@Component
+@ConditionalOnProperty(name = "diagnostics.pinned-threads.enabled", havingValue = "true")
+public class PinnedThreadMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 12;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${diagnostics.pinned-threads.threshold:PT0.02S}")
+    private Duration threshold;
+
+    private RecordingStream recordingStream;
+
+    private Timer pinnedTimer;
+
+    @PostConstruct
+    public void start() {
+        pinnedTimer = Timer.builder("jvm.threads.virtual.pinned").register(meterRegistry);
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+    }
+
+    @PreDestroy
+    public void stop() {
+        recordingStream.close();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedTimer.record(event.getDuration());
+        String stack = event.getStackTrace() == null ? "" : event.getStackTrace().getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .map(this::formatFrame)
+                .collect(Collectors.joining("\n\tat ", "\n\tat ", ""));
+        log.warning("virtual thread pinned for " + event.getDuration().toMillis() + " ms" + stack);
+    }
+
+    private String formatFrame(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.taskmanagementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated result. {@code nextCursor} is an opaque token that
+ * points past the last item of the page, or {@code null} when there are no more items.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CursorPage<T> {
+    private List<T> items = new ArrayList<>();
+    private String nextCursor;
+
+    public static String encodeCursor(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor=" + cursor);
+        }
+    }
+
+    public static String encodeIdCursor(Long id) {
+        return encodeCursor(String.valueOf(id));
+    }
+
+    public static Long decodeIdCursor(String cursor) {
+        try {
+            return Long.valueOf(decodeCursor(cursor));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor=" + cursor);
+        }
+    }
+}
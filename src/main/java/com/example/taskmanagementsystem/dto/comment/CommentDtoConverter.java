@@ -52,6 +52,15 @@ public class CommentDtoConverter implements DtoConverter<Comment, CommentDto, St
                 .build();
     }
 
+    public CommentResponse convertEntityToResponse(Comment comment) {
+        return CommentResponse.builder()
+                .id(comment.getId())
+                .commentator(userResponseConverter.convertUserToResponse(comment.getCommentator()))
+                .text(comment.getText())
+                .dateTime(comment.getDateTime())
+                .build();
+    }
+
     private String getNonBlankString(String value) {
         return (value != null && !value.isBlank()) ? value : null;
     }
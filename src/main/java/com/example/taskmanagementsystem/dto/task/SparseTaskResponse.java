@@ -0,0 +1,15 @@
+package com.example.taskmanagementsystem.dto.task;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * A task response for the fields and associations selected by the {@code fields} and {@code include} parameters;
+ * the ones that are not selected are null and left out, while a full {@link TaskResponse} keeps its null fields.
+ */
+@NoArgsConstructor
+@SuperBuilder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SparseTaskResponse extends TaskResponse {
+}
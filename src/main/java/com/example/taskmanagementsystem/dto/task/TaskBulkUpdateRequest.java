@@ -0,0 +1,47 @@
+package com.example.taskmanagementsystem.dto.task;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Filter of the tasks to update and exactly one change: a new status, a new priority,
+ * or a new assignee which replaces the assignee of the filter.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+public class TaskBulkUpdateRequest {
+    @Min(1)
+    @Max(3)
+    @Schema(example = "1")
+    private Integer statusValue;
+
+    @Min(1)
+    @Max(3)
+    private Integer priorityValue;
+
+    private Long authorId;
+
+    @Schema(example = "2")
+    private Long assigneeId;
+
+    @Min(1)
+    @Max(3)
+    @Schema(example = "3")
+    private Integer newStatusValue;
+
+    @Min(1)
+    @Max(3)
+    private Integer newPriorityValue;
+
+    private Long newAssigneeId;
+}
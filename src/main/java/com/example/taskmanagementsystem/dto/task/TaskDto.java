@@ -15,6 +15,7 @@ import java.util.List;
 @Builder
 public class TaskDto {
     private Long id;
+    private Long version;
     private String title;
     private String description;
     private TaskStatus status;
@@ -22,4 +23,5 @@ public class TaskDto {
     private User author;
     private List<User> assignees = new ArrayList<>();
     private List<Comment> comments = new ArrayList<>();
+    private Long commentsCount;
 }
@@ -4,6 +4,7 @@ import com.example.taskmanagementsystem.dto.DtoConverter;
 import com.example.taskmanagementsystem.dto.comment.CommentDtoConverter;
 import com.example.taskmanagementsystem.dto.comment.CommentResponse;
 import com.example.taskmanagementsystem.dto.user.UserResponseConverter;
+import com.example.taskmanagementsystem.models.Comment;
 import com.example.taskmanagementsystem.models.Task;
 import com.example.taskmanagementsystem.models.TaskPriority;
 import com.example.taskmanagementsystem.models.TaskStatus;
@@ -13,29 +14,48 @@ import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Component
 public class TaskDtoConverter implements DtoConverter<Task, TaskDto, TaskRequest, TaskResponse> {
 
+    public static final int LATEST_COMMENTS_SIZE = 5;
+
     @Autowired
     private UserResponseConverter userResponseConverter;
 
     @Autowired
     private CommentDtoConverter commentDtoConverter;
 
+    /**
+     * Converts the task with the comments it holds in memory and runs no query, e.g. for a task that was just created.
+     * Tasks loaded from the database are converted with their latest comments and count, see the other variant.
+     */
     @Override
     public TaskDto convertEntityToDto(Task task) {
+        List<Comment> comments = task.getComments() != null ? task.getComments() : List.of();
+        return convertEntityToDto(task,
+                comments.stream()
+                        .sorted(Comparator.comparing(Comment::getDateTime).thenComparing(Comment::getId))
+                        .skip(Math.max(0, comments.size() - LATEST_COMMENTS_SIZE))
+                        .collect(Collectors.toList()),
+                (long) comments.size());
+    }
+
+    public TaskDto convertEntityToDto(Task task, List<Comment> latestComments, Long commentsCount) {
         return TaskDto.builder()
                 .id(task.getId())
+                .version(task.getVersion())
                 .title(task.getTitle())
                 .description(task.getDescription())
                 .priority(task.getPriority())
                 .status(task.getStatus())
                 .author(task.getAuthor())
                 .assignees(new ArrayList<>(task.getAssignees()))
-                .comments(task.getComments())
+                .comments(latestComments)
+                .commentsCount(commentsCount)
                 .build();
     }
 
@@ -43,12 +63,13 @@ public class TaskDtoConverter implements DtoConverter<Task, TaskDto, TaskRequest
     public Task convertDtoToEntity(TaskDto taskDto) {
         return Task.builder()
                 .id(taskDto.getId())
+                .version(taskDto.getVersion())
                 .title(taskDto.getTitle())
                 .description(taskDto.getDescription())
                 .priority(taskDto.getPriority())
                 .status(taskDto.getStatus())
                 .author(taskDto.getAuthor())
-                .assignees(taskDto.getAssignees())
+                .assignees(taskDto.getAssignees() != null ? new LinkedHashSet<>(taskDto.getAssignees()) : null)
                 .comments(taskDto.getComments())
                 .build();
     }
@@ -83,27 +104,42 @@ public class TaskDtoConverter implements DtoConverter<Task, TaskDto, TaskRequest
 
     @Override
     public TaskResponse convertDtoToResponse(TaskDto taskDto) {
-        List<CommentResponse> comments = taskDto.getComments()
-                .stream()
-                .map(commentDtoConverter::convertEntityToDto)
-                .map(commentDtoConverter::convertDtoToResponse)
-                .collect(Collectors.toList());
+        return convertDtoToResponse(taskDto, TaskResponse.builder());
+    }
 
-        if(comments.size() > 1)
-            comments.sort(Comparator.comparing(CommentResponse::getDateTime));
+    /**
+     * The fields and associations that are not selected are null in the dto and are left out of the response.
+     */
+    public TaskResponse convertDtoToResponse(TaskDto taskDto, TaskFieldSelection selection) {
+        return selection.isFull()
+                ? convertDtoToResponse(taskDto)
+                : convertDtoToResponse(taskDto, SparseTaskResponse.builder());
+    }
 
+    private TaskResponse convertDtoToResponse(TaskDto taskDto, TaskResponse.TaskResponseBuilder<?, ?> builder) {
+        List<CommentResponse> comments = taskDto.getComments() != null ?
+                taskDto.getComments()
+                        .stream()
+                        .map(commentDtoConverter::convertEntityToResponse)
+                        .collect(Collectors.toList()) :
+                null;
 
-        return TaskResponse.builder()
+        return builder
                 .id(taskDto.getId())
                 .title(taskDto.getTitle())
                 .description(taskDto.getDescription())
-                .priority(new TaskProperty(taskDto.getPriority()))
-                .status(new TaskProperty(taskDto.getStatus()))
-                .author(userResponseConverter.convertUserToResponse(taskDto.getAuthor()))
-                .assignees(taskDto.getAssignees()
-                        .stream()
-                        .map(userResponseConverter::convertUserToResponse)
-                        .collect(Collectors.toList()))
+                .priority(taskDto.getPriority() != null ? new TaskProperty(taskDto.getPriority()) : null)
+                .status(taskDto.getStatus() != null ? new TaskProperty(taskDto.getStatus()) : null)
+                .author(taskDto.getAuthor() != null ? userResponseConverter.convertUserToResponse(taskDto.getAuthor()) : null)
+                .assignees(taskDto.getAssignees() != null ?
+                        taskDto.getAssignees()
+                                .stream()
+                                .map(userResponseConverter::convertUserToResponse)
+                                .collect(Collectors.toList()) :
+                        null)
+                .commentsCount(taskDto.getCommentsCount() != null || comments == null ?
+                        taskDto.getCommentsCount() :
+                        Long.valueOf(comments.size()))
                 .comments(comments)
                 .build();
     }
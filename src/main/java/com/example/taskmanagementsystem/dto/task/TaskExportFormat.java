@@ -0,0 +1,25 @@
+package com.example.taskmanagementsystem.dto.task;
+
+public enum TaskExportFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String mediaType;
+
+    TaskExportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public static TaskExportFormat getByName(String name) {
+        for (TaskExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Invalid TaskExportFormat name: " + name);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.taskmanagementsystem.dto.task;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Flat task row of the export; the CSV header follows the same column order.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+@JsonPropertyOrder({"id", "title", "description", "status", "priority", "authorId", "authorEmail"})
+public class TaskExportRow {
+    public static final String CSV_HEADER = "id,title,description,status,priority,author-id,author-email";
+
+    private Long id;
+    private String title;
+    private String description;
+    private String status;
+    private String priority;
+    private Long authorId;
+    private String authorEmail;
+}
@@ -0,0 +1,64 @@
+package com.example.taskmanagementsystem.dto.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The task fields and associations requested by the {@code fields} and {@code include} parameters.
+ * Without both parameters the whole task is returned; {@code fields} alone includes no association,
+ * {@code include} alone keeps all the fields. The id is always selected.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TaskFieldSelection {
+
+    public static final List<String> FIELDS = List.of("id", "title", "description", "status", "priority", "author");
+    public static final List<String> INCLUDES = List.of("assignees", "comments");
+
+    private Set<String> fields;
+    private Set<String> include;
+
+    public static TaskFieldSelection full() {
+        return new TaskFieldSelection(new LinkedHashSet<>(FIELDS), new LinkedHashSet<>(INCLUDES));
+    }
+
+    public static TaskFieldSelection of(List<String> fields, List<String> include) {
+        if (fields == null && include == null)
+            return full();
+
+        Set<String> selectedFields = new LinkedHashSet<>();
+        selectedFields.add("id");
+        selectedFields.addAll(validate(fields != null ? fields : FIELDS, FIELDS, "field"));
+        Set<String> selectedIncludes = new LinkedHashSet<>(validate(include != null ? include : List.of(), INCLUDES, "include"));
+        return new TaskFieldSelection(selectedFields, selectedIncludes);
+    }
+
+    public boolean isFull() {
+        return fields.containsAll(FIELDS) && include.containsAll(INCLUDES);
+    }
+
+    public boolean hasField(String field) {
+        return fields.contains(field);
+    }
+
+    public boolean includes(String association) {
+        return include.contains(association);
+    }
+
+    private static List<String> validate(List<String> names, List<String> allowed, String kind) {
+        List<String> trimmed = names.stream().map(String::trim).filter(name -> !name.isEmpty()).toList();
+        for (String name : trimmed) {
+            if (!allowed.contains(name))
+                throw new IllegalArgumentException("Invalid " + kind + "=" + name);
+        }
+        return trimmed;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.taskmanagementsystem.dto.task;
+
+import io.swagger.v3.oas.annotations.Parameter;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The {@code fields} and {@code include} query parameters of the endpoints returning tasks.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TaskFieldSelectionParameters {
+
+    @Parameter(description = "Comma-separated fields to return: id, title, description, status, priority, author.\n\n" +
+            "All the fields are returned by default.")
+    private List<String> fields;
+
+    @Parameter(description = "Comma-separated associations to return: assignees, comments.\n\n" +
+            "Both are returned by default, none when only the fields are given.")
+    private List<String> include;
+
+    public TaskFieldSelection toSelection() {
+        return TaskFieldSelection.of(fields, include);
+    }
+}
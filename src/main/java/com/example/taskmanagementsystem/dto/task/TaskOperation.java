@@ -0,0 +1,44 @@
+package com.example.taskmanagementsystem.dto.task;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One operation of a batch on the task with the task id. Only the members of the operation are read:
+ * the patch for PATCH, the assignee ids and emails for the assignees, the comment text or id for the comments.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+public class TaskOperation {
+    @Schema(example = "PATCH")
+    private TaskOperationType op;
+
+    @Schema(example = "1")
+    private Long taskId;
+
+    @Schema(description = "Task version the change is based on, as in the If-Match ETag. Any version when missing.")
+    private Long expectedVersion;
+
+    private TaskPatchRequest patch;
+
+    @Builder.Default
+    private List<Long> assigneeIds = new ArrayList<>();
+
+    @Builder.Default
+    private List<String> assigneeEmails = new ArrayList<>();
+
+    private String commentText;
+
+    private Long commentId;
+}
@@ -0,0 +1,32 @@
+package com.example.taskmanagementsystem.dto.task;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of one operation of a batch, with the status the single request would have been answered with.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskOperationResult {
+    @Schema(example = "200")
+    private int status;
+
+    @Schema(description = "New version of the task, its ETag without the quotes.")
+    private Long version;
+
+    @Schema(description = "Identifier of the added comment.")
+    private Long commentId;
+
+    private String error;
+}
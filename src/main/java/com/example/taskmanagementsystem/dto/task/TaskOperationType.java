@@ -0,0 +1,10 @@
+package com.example.taskmanagementsystem.dto.task;
+
+public enum TaskOperationType {
+    PATCH,
+    ADD_ASSIGNEES,
+    REMOVE_ASSIGNEES,
+    ADD_COMMENT,
+    REMOVE_COMMENT,
+    DELETE
+}
@@ -0,0 +1,36 @@
+package com.example.taskmanagementsystem.dto.task;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Optional;
+
+/**
+ * JSON Merge Patch of the task fields: a missing member is left as it is (the field is null),
+ * a member set to null removes the value (the field is an empty Optional). Written back the same way.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskPatchRequest {
+    @Schema(type = "string", example = "Example task title")
+    private Optional<String> title;
+
+    @Schema(type = "string", example = "Example task description")
+    private Optional<String> description;
+
+    @Schema(type = "integer", example = "2")
+    private Optional<Integer> statusValue;
+
+    @Schema(type = "integer", example = "3")
+    private Optional<Integer> priorityValue;
+}
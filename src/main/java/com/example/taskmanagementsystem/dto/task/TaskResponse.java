@@ -10,9 +10,9 @@ import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
-import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -20,9 +20,10 @@ import java.util.List;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@SuperBuilder
 @JsonNaming(PropertyNamingStrategies.KebabCaseStrategy.class)
-@Schema(name = "Task Response")
+@Schema(name = "Task Response", description = "Only the requested fields are present when the fields or include " +
+        "parameters are used.")
 public class TaskResponse {
 
     @Schema(example = "1")
@@ -43,6 +44,10 @@ public class TaskResponse {
 
     private List<UserResponse> assignees = new ArrayList<>();
 
+    @Schema(example = "2")
+    private Long commentsCount;
+
+    @Schema(description = "The latest comments, oldest first, or all the comments when requested.")
     private List<CommentResponse> comments = new ArrayList<>();
 
 }
@@ -0,0 +1,22 @@
+package com.example.taskmanagementsystem.dto.task;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class TaskSearchCriteria {
+    private Integer statusValue;
+    private Integer priorityValue;
+    private Long authorId;
+    private Long assigneeId;
+    private String titlePrefix;
+    private List<String> sort = new ArrayList<>();
+}
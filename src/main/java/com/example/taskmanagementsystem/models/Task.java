@@ -5,25 +5,52 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.Length;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "tasks")
+// the field updates write only the changed columns, the version and the update time
+@DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_author_status_priority", columnList = "author_id, status, priority"),
+        @Index(name = "idx_tasks_status_priority", columnList = "status, priority"),
+        @Index(name = "idx_tasks_priority", columnList = "priority"),
+        // serves ordering by title; the prefix filter is served by idx_tasks_title_pattern on PostgreSQL, see TitlePrefixIndexSchema
+        @Index(name = "idx_tasks_title", columnList = "title")
+})
 public class Task {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_seq")
+    @SequenceGenerator(name = "tasks_seq", sequenceName = "tasks_seq", allocationSize = 50)
     private Long id;
 
+    // incremented by every change of the task, its assignees or its comments; the task ETag is made of it
+    @Version
+    private Long version;
+
+    // also set by the comment changes, so the task row is updated and its version incremented
+    @UpdateTimestamp
+    private Instant updatedAt;
+
     @Column
     private String title;
 
-    @Lob
+    @Column(length = Length.LONG32)
     private String description;
 
     @Enumerated(EnumType.STRING)
@@ -38,13 +65,18 @@ public class Task {
     @JoinColumn(name = "author_id")
     private User author;
 
+    // a set: Hibernate inserts and deletes single join rows instead of rewriting the whole bag
     @ManyToMany
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(
             name = "task_assignees",
             joinColumns = @JoinColumn(name = "task_id"),
-            inverseJoinColumns = @JoinColumn(name = "assignee_id"))
-    private List<User> assignees = new ArrayList<>();
+            inverseJoinColumns = @JoinColumn(name = "assignee_id"),
+            indexes = @Index(name = "idx_task_assignees_assignee_task", columnList = "assignee_id, task_id"))
+    private Set<User> assignees = new LinkedHashSet<>();
 
     @OneToMany(mappedBy = "task", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     private List<Comment> comments = new ArrayList<>();
 }
@@ -6,17 +6,23 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.time.Instant;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "users")
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
@@ -28,4 +34,26 @@ public class User {
 
     @Column(nullable = false)
     private String name;
+
+    // incremented on every email or password change, tokens issued with an older version are revoked
+    @Column(nullable = false)
+    private long tokenVersion;
+
+    private Instant tokenVersionChangedAt;
+
+    // users are equal by id, a reference or a user built from the principal equals the loaded one
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof User other))
+            return false;
+        return getId() != null && getId().equals(other.getId());
+    }
+
+    // constant, so that the hash of a user does not change when it gets its id
+    @Override
+    public int hashCode() {
+        return User.class.hashCode();
+    }
 }
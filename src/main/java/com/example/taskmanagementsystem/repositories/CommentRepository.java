@@ -1,10 +1,60 @@
 package com.example.taskmanagementsystem.repositories;
 
 import com.example.taskmanagementsystem.models.Comment;
-import com.example.taskmanagementsystem.models.Task;
+import com.example.taskmanagementsystem.repositories.projections.TaskCommentsCountView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Comments of a task are always read in (dateTime, id) order, which is served by the
+ * idx_comments_task_date_time index (see {@link Comment}).
+ */
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    void deleteAllByTask(Task task);
+    @Modifying(flushAutomatically = true)
+    @Query("delete from Comment c where c.task.id in :taskIds")
+    int deleteAllByTaskIdIn(Collection<Long> taskIds);
+
+    @Query("select c from Comment c join fetch c.commentator where c.task.id = :taskId order by c.dateTime, c.id")
+    List<Comment> findAllByTaskId(Long taskId);
+
+    @Query("select c from Comment c join fetch c.commentator where c.id = :id and c.task.id = :taskId")
+    Optional<Comment> findByIdAndTaskId(Long id, Long taskId);
+
+    @Query("select c from Comment c join fetch c.commentator where c.task.id = :taskId order by c.dateTime, c.id")
+    List<Comment> findAllByTaskId(Long taskId, Limit limit);
+
+    /**
+     * The date time of the last seen comment is read by the database, so the cursor does not
+     * depend on the timestamp precision of the column. When that comment was deleted in the meantime,
+     * the date time kept in the cursor is used instead.
+     */
+    @Query("""
+            select c from Comment c join fetch c.commentator
+            where c.task.id = :taskId
+              and (c.dateTime > coalesce((select l.dateTime from Comment l where l.id = :id), :dateTime)
+                or c.dateTime = coalesce((select l.dateTime from Comment l where l.id = :id), :dateTime) and c.id > :id)
+            order by c.dateTime, c.id""")
+    List<Comment> findAllByTaskIdAfter(Long taskId, Long id, LocalDateTime dateTime, Limit limit);
+
+    @Query("""
+            select c from Comment c join fetch c.commentator
+            where c.id in (
+                select r.id from (
+                    select c2.id as id,
+                           row_number() over (partition by c2.task.id order by c2.dateTime desc, c2.id desc) as position
+                    from Comment c2 where c2.task.id in :taskIds) r
+                where r.position <= :limit)
+            order by c.dateTime, c.id""")
+    List<Comment> findLatestByTaskIdIn(Collection<Long> taskIds, int limit);
+
+    @Query("select c.task.id as taskId, count(c) as commentsCount from Comment c where c.task.id in :taskIds group by c.task.id")
+    List<TaskCommentsCountView> countAllByTaskIdIn(Collection<Long> taskIds);
 }
@@ -0,0 +1,72 @@
+package com.example.taskmanagementsystem.repositories;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds the PostgreSQL full-text search columns that Hibernate cannot describe:
+ * generated {@code tsvector} columns on tasks (title + description) and comments (text), each with a GIN index.
+ * On any other database, or if the columns cannot be created, search falls back to portable LIKE queries.
+ */
+@Component
+@Log
+public class FullTextSearchSchema {
+
+    private static final String TASKS_SEARCH_VECTOR =
+            "alter table tasks add column if not exists search_vector tsvector generated always as " +
+            "(to_tsvector('%s', coalesce(title, '') || ' ' || coalesce(description, ''))) stored";
+    private static final String TASKS_SEARCH_INDEX =
+            "create index if not exists idx_tasks_search_vector on tasks using gin (search_vector)";
+    private static final String COMMENTS_SEARCH_VECTOR =
+            "alter table comments add column if not exists search_vector tsvector generated always as " +
+            "(to_tsvector('%s', text)) stored";
+    private static final String COMMENTS_SEARCH_INDEX =
+            "create index if not exists idx_comments_search_vector on comments using gin (search_vector)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // the tables must have been created by Hibernate before the columns are added
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${search.full-text.configuration:simple}")
+    private String configuration;
+
+    private boolean enabled;
+
+    @PostConstruct
+    public void createSearchColumns() {
+        if (!configuration.matches("[a-z_]+"))
+            throw new IllegalArgumentException("Invalid text search configuration=" + configuration);
+
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database))
+            return;
+
+        try {
+            jdbcTemplate.execute(TASKS_SEARCH_VECTOR.formatted(configuration));
+            jdbcTemplate.execute(TASKS_SEARCH_INDEX);
+            jdbcTemplate.execute(COMMENTS_SEARCH_VECTOR.formatted(configuration));
+            jdbcTemplate.execute(COMMENTS_SEARCH_INDEX);
+            enabled = true;
+        } catch (Exception e) {
+            log.severe("full-text search columns are not available, falling back to LIKE search: " + e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getConfiguration() {
+        return configuration;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.taskmanagementsystem.repositories;
+
+import com.example.taskmanagementsystem.models.Task;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface TaskFieldsRepository {
+    List<Tuple> findFieldsBy(Specification<Task> specification, Collection<String> fields, Pageable pageable);
+}
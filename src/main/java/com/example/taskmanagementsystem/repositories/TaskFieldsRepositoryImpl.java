@@ -0,0 +1,52 @@
+package com.example.taskmanagementsystem.repositories;
+
+import com.example.taskmanagementsystem.models.Task;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+
+public class TaskFieldsRepositoryImpl implements TaskFieldsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Selects only the given fields, each aliased by its name; the author is joined only when it is selected.
+     */
+    @Override
+    public List<Tuple> findFieldsBy(Specification<Task> specification, Collection<String> fields, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Task> root = query.from(Task.class);
+
+        List<Selection<?>> selections = fields.stream()
+                .<Selection<?>>map(field -> field.equals("author")
+                        ? root.join("author", JoinType.LEFT).alias(field)
+                        : root.get(field).alias(field))
+                .toList();
+        query.multiselect(selections);
+
+        Predicate predicate = specification.toPredicate(root, query, cb);
+        if (predicate != null)
+            query.where(predicate);
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        return typedQuery.getResultList();
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.taskmanagementsystem.repositories;
+
+import java.util.List;
+
+public interface TaskFullTextSearchRepository {
+    List<Long> findIdsByFullText(String query, int offset, int limit);
+}
@@ -0,0 +1,60 @@
+package com.example.taskmanagementsystem.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+public class TaskFullTextSearchRepositoryImpl implements TaskFullTextSearchRepository {
+
+    // every branch of the union is served by its own GIN index
+    private static final String RANKED_SEARCH = """
+            with search as (select websearch_to_tsquery('%s', :query) as query),
+            matches as (
+                select t.id as task_id, ts_rank(t.search_vector, s.query) as rank
+                from tasks t, search s where t.search_vector @@ s.query
+                union all
+                select c.task_id, ts_rank(c.search_vector, s.query)
+                from comments c, search s where c.search_vector @@ s.query
+            )
+            select task_id from matches
+            group by task_id
+            order by max(rank) desc, task_id
+            limit :limit offset :offset""";
+
+    private static final String PORTABLE_SEARCH = """
+            select t.id from Task t
+            where lower(t.title) like :pattern escape '!'
+               or lower(cast(t.description as String)) like :pattern escape '!'
+               or exists (select c.id from Comment c where c.task = t and lower(c.text) like :pattern escape '!')
+            order by t.id""";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private FullTextSearchSchema fullTextSearchSchema;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> findIdsByFullText(String query, int offset, int limit) {
+        if (fullTextSearchSchema.isEnabled()) {
+            List<Number> ids = entityManager
+                    .createNativeQuery(RANKED_SEARCH.formatted(fullTextSearchSchema.getConfiguration()))
+                    .setParameter("query", query)
+                    .setParameter("limit", limit)
+                    .setParameter("offset", offset)
+                    .getResultList();
+            return ids.stream().map(Number::longValue).toList();
+        }
+
+        String pattern = "%" + query.toLowerCase()
+                .replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+        return entityManager.createQuery(PORTABLE_SEARCH, Long.class)
+                .setParameter("pattern", pattern)
+                .setFirstResult(offset)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -1,13 +1,164 @@
 package com.example.taskmanagementsystem.repositories;
 
 import com.example.taskmanagementsystem.models.Task;
+import com.example.taskmanagementsystem.models.TaskPriority;
+import com.example.taskmanagementsystem.models.TaskStatus;
 import com.example.taskmanagementsystem.models.User;
+import com.example.taskmanagementsystem.repositories.projections.TaskAssigneeView;
+import com.example.taskmanagementsystem.repositories.projections.TaskAuthorIdView;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface TaskRepository extends JpaRepository<Task, Long> {
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_NATIVE_SPACES;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
+/**
+ * List queries join-fetch only the author; assignees and comments are batch-loaded (see {@link Task}),
+ * because a collection join would defeat the row limit of the paginated queries.
+ * Native statements on task_assignees are synchronized with the tasks table: Hibernate evicts collection
+ * regions only through their owning entity, and without a table it would evict the whole second-level cache.
+ */
+public interface TaskRepository extends JpaRepository<Task, Long>, JpaSpecificationExecutor<Task>,
+        TaskFullTextSearchRepository, TaskFieldsRepository {
+
+    String BULK_UPDATE_FILTER = """
+            (:status is null or t.status = :status)
+            and (:priority is null or t.priority = :priority)
+            and (:authorId is null or t.author.id = :authorId)
+            and (:assigneeId is null or exists (
+                select a.id from Task s join s.assignees a where s.id = t.id and a.id = :assigneeId))
+            """;
+
+    String BULK_REASSIGN_FILTER = """
+            t.author_id = :userId
+            and (cast(:status as varchar) is null or t.status = cast(:status as varchar))
+            and (cast(:priority as varchar) is null or t.priority = cast(:priority as varchar))
+            and (cast(:authorId as bigint) is null or t.author_id = cast(:authorId as bigint))
+            """;
+
+    @Override
+    @EntityGraph(attributePaths = {"author", "assignees"})
+    Optional<Task> findById(Long id);
+
+    @Override
+    @EntityGraph(attributePaths = "author")
+    List<Task> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "author")
+    List<Task> findAllById(Iterable<Long> ids);
+
+    @EntityGraph(attributePaths = "author")
     List<Task> findAllByAuthor(User author);
+
+    @EntityGraph(attributePaths = "author")
     List<Task> findAllByAssigneesContains(User assignee);
+
+    @Override
+    @EntityGraph(attributePaths = "author")
+    Page<Task> findAll(Specification<Task> specification, Pageable pageable);
+
+    @EntityGraph(attributePaths = "author")
+    List<Task> findAllByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Must be consumed inside a transaction; rows are fetched from the cursor in chunks of the fetch size.
+     */
+    @EntityGraph(attributePaths = "author")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<Task> streamAllByOrderByIdAsc();
+
+    <T> Optional<T> findProjectedById(Long id, Class<T> type);
+
+    @Query("select t.version from Task t where t.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Task t set t.status = :newStatus, t.version = t.version + 1, t.updatedAt = instant where (t.status is null or t.status <> :newStatus) and " + BULK_UPDATE_FILTER + """
+            and (t.author.id = :userId or exists (
+                select a.id from Task s join s.assignees a where s.id = t.id and a.id = :userId))""")
+    int updateStatusByFilter(TaskStatus newStatus, TaskStatus status, TaskPriority priority,
+                             Long authorId, Long assigneeId, Long userId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Task t set t.priority = :newPriority, t.version = t.version + 1, t.updatedAt = instant where (t.priority is null or t.priority <> :newPriority) and " + BULK_UPDATE_FILTER +
+            "and t.author.id = :userId")
+    int updatePriorityByFilter(TaskPriority newPriority, TaskStatus status, TaskPriority priority,
+                               Long authorId, Long assigneeId, Long userId);
+
+    // the tasks touched by the native reassign statements below
+    @Modifying(flushAutomatically = true)
+    @Query("update Task t set t.version = t.version + 1, t.updatedAt = instant where " + BULK_UPDATE_FILTER + "and t.author.id = :userId")
+    int incrementVersionByFilter(TaskStatus status, TaskPriority priority, Long authorId, Long assigneeId, Long userId);
+
+    @Modifying(flushAutomatically = true)
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "tasks"))
+    @Query(nativeQuery = true, value = """
+            insert into task_assignees (task_id, assignee_id)
+            select t.id, :newAssigneeId from tasks t
+            where
+            """ + BULK_REASSIGN_FILTER + """
+            and exists (select 1 from task_assignees ta where ta.task_id = t.id and ta.assignee_id = :assigneeId)
+            and not exists (select 1 from task_assignees ta where ta.task_id = t.id and ta.assignee_id = :newAssigneeId)""")
+    int insertAssigneeByFilter(Long newAssigneeId, String status, String priority,
+                               Long authorId, Long assigneeId, Long userId);
+
+    @Modifying(clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "tasks"))
+    @Query(nativeQuery = true, value = """
+            delete from task_assignees ta
+            where ta.assignee_id = :assigneeId
+            and exists (select 1 from tasks t where t.id = ta.task_id and
+            """ + BULK_REASSIGN_FILTER + ")")
+    int deleteAssigneeByFilter(String status, String priority, Long authorId, Long assigneeId, Long userId);
+
+    /**
+     * The task responses show the name and email of the author, the assignees and the commentators,
+     * so the versions, and the ETags made of them, change with these users.
+     */
+    @Query("""
+            select t from Task t
+            where t.author.id = :userId
+            or exists (select a.id from Task s join s.assignees a where s.id = t.id and a.id = :userId)
+            or exists (select c.id from Comment c where c.task.id = t.id and c.commentator.id = :userId)""")
+    List<Task> findAllShowingUser(Long userId);
+
+    @Query("select t.id as id, t.author.id as authorId from Task t where t.id in :ids")
+    List<TaskAuthorIdView> findAuthorIdsByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HINT_NATIVE_SPACES, value = "tasks"))
+    @Query(nativeQuery = true, value = "delete from task_assignees where task_id in :taskIds")
+    int deleteAssigneesByTaskIdIn(Collection<Long> taskIds);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Task t where t.id in :ids")
+    int deleteAllByIdIn(Collection<Long> ids);
+
+    @Query("select t.author from Task t where t.id = :id")
+    Optional<User> findAuthorById(Long id);
+
+    @Query("select a from Task t join t.assignees a where t.id = :id")
+    List<User> findAssigneesById(Long id);
+
+    @Query("select t.id as taskId, a as assignee from Task t join t.assignees a where t.id in :ids")
+    List<TaskAssigneeView> findAssigneesByIdIn(Collection<Long> ids);
 }
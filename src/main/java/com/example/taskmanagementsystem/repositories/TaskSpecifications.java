@@ -0,0 +1,104 @@
+package com.example.taskmanagementsystem.repositories;
+
+import com.example.taskmanagementsystem.models.Task;
+import com.example.taskmanagementsystem.models.TaskPriority;
+import com.example.taskmanagementsystem.models.TaskStatus;
+import com.example.taskmanagementsystem.models.User;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public final class TaskSpecifications {
+
+    public static final List<String> SORT_KEYS = List.of("id", "title", "status", "priority");
+
+    private TaskSpecifications() {
+    }
+
+    public static Specification<Task> hasIdIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    public static Specification<Task> hasIdGreaterThan(Long id) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+
+    public static Specification<Task> hasStatus(TaskStatus status) {
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Task> hasPriority(TaskPriority priority) {
+        return (root, query, cb) -> cb.equal(root.get("priority"), priority);
+    }
+
+    public static Specification<Task> hasAuthor(Long authorId) {
+        return (root, query, cb) -> cb.equal(root.get("author").get("id"), authorId);
+    }
+
+    public static Specification<Task> hasAssignee(Long assigneeId) {
+        return (root, query, cb) -> {
+            // an exists-subquery instead of a join keeps one row per task without a distinct
+            Subquery<Long> assignment = query.subquery(Long.class);
+            Root<Task> task = assignment.correlate(root);
+            Join<Task, User> assignee = task.join("assignees");
+            assignment.select(assignee.get("id")).where(cb.equal(assignee.get("id"), assigneeId));
+            return cb.exists(assignment);
+        };
+    }
+
+    public static Specification<Task> titleStartsWith(String prefix) {
+        return (root, query, cb) -> cb.like(root.get("title"), escapeLike(prefix) + "%", '\\');
+    }
+
+    /**
+     * Orders by the given keys, e.g. {@code ["-priority", "title"]}; a leading '-' means descending.
+     * Status and priority are ordered by their value rather than by the stored enum name.
+     * The id is always appended as a tie-breaker so that pages are stable.
+     */
+    public static Specification<Task> orderBy(List<String> sortKeys) {
+        return (root, query, cb) -> {
+            List<Order> orders = new ArrayList<>();
+            for (String sortKey : sortKeys) {
+                boolean descending = sortKey.startsWith("-");
+                String key = descending ? sortKey.substring(1) : sortKey;
+                Expression<?> expression = switch (key) {
+                    case "id" -> root.get("id");
+                    case "title" -> root.get("title");
+                    case "status" -> statusValue(root, cb);
+                    case "priority" -> priorityValue(root, cb);
+                    default -> throw new IllegalArgumentException("Invalid sort key=" + sortKey);
+                };
+                orders.add(descending ? cb.desc(expression) : cb.asc(expression));
+            }
+            orders.add(cb.asc(root.get("id")));
+            query.orderBy(orders);
+            return null;
+        };
+    }
+
+    private static Expression<Integer> statusValue(Root<Task> root, CriteriaBuilder cb) {
+        CriteriaBuilder.SimpleCase<TaskStatus, Integer> value = cb.selectCase(root.get("status"));
+        for (TaskStatus status : TaskStatus.values())
+            value.when(status, status.getValue());
+        return value.otherwise(0);
+    }
+
+    private static Expression<Integer> priorityValue(Root<Task> root, CriteriaBuilder cb) {
+        CriteriaBuilder.SimpleCase<TaskPriority, Integer> value = cb.selectCase(root.get("priority"));
+        for (TaskPriority priority : TaskPriority.values())
+            value.when(priority, priority.getValue());
+        return value.otherwise(0);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
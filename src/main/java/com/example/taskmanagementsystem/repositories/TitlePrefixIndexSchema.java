@@ -0,0 +1,44 @@
+package com.example.taskmanagementsystem.repositories;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds the PostgreSQL index that serves the title prefix filter ({@code title like 'prefix%'}).
+ * The plain {@code idx_tasks_title} index only serves LIKE under the C collation, while an index with
+ * the {@code varchar_pattern_ops} operator class compares characters and works with any collation.
+ * Other databases use {@code idx_tasks_title} as is.
+ */
+@Component
+@Log
+public class TitlePrefixIndexSchema {
+
+    private static final String TASKS_TITLE_PATTERN_INDEX =
+            "create index if not exists idx_tasks_title_pattern on tasks (title varchar_pattern_ops)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // the table must have been created by Hibernate before the index is added
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void createTitlePatternIndex() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database))
+            return;
+
+        try {
+            jdbcTemplate.execute(TASKS_TITLE_PATTERN_INDEX);
+        } catch (Exception e) {
+            log.severe("title prefix index is not available, prefix filter falls back to idx_tasks_title: " + e.getMessage());
+        }
+    }
+}
@@ -1,10 +1,33 @@
 package com.example.taskmanagementsystem.repositories;
 
 import com.example.taskmanagementsystem.models.User;
+import com.example.taskmanagementsystem.repositories.projections.UserTokenVersionView;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    /**
+     * Cached by the query cache; the user itself comes from the entity cache,
+     * so a repeated lookup of the same email does not reach the database.
+     */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<User> findByEmail(String email);
+
+    List<User> findAllByEmailIn(Collection<String> emails);
+
+    @Query("select u.id as id, u.tokenVersion as tokenVersion from User u where u.tokenVersionChangedAt > :since")
+    List<UserTokenVersionView> findTokenVersionsChangedAfter(Instant since);
+
+    @Query("select u.id as id, u.tokenVersion as tokenVersion from User u where u.id = :id")
+    Optional<UserTokenVersionView> findTokenVersionById(Long id);
 }
@@ -0,0 +1,8 @@
+package com.example.taskmanagementsystem.repositories.projections;
+
+import com.example.taskmanagementsystem.models.User;
+
+public interface TaskAssigneeView {
+    Long getTaskId();
+    User getAssignee();
+}
@@ -0,0 +1,6 @@
+package com.example.taskmanagementsystem.repositories.projections;
+
+public interface TaskAuthorIdView {
+    Long getId();
+    Long getAuthorId();
+}
@@ -0,0 +1,6 @@
+package com.example.taskmanagementsystem.repositories.projections;
+
+public interface TaskCommentsCountView {
+    Long getTaskId();
+    Long getCommentsCount();
+}
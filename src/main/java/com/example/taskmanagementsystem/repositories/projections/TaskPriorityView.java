@@ -0,0 +1,7 @@
+package com.example.taskmanagementsystem.repositories.projections;
+
+import com.example.taskmanagementsystem.models.TaskPriority;
+
+public interface TaskPriorityView {
+    TaskPriority getPriority();
+}
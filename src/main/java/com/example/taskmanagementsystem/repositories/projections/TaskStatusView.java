@@ -0,0 +1,7 @@
+package com.example.taskmanagementsystem.repositories.projections;
+
+import com.example.taskmanagementsystem.models.TaskStatus;
+
+public interface TaskStatusView {
+    TaskStatus getStatus();
+}
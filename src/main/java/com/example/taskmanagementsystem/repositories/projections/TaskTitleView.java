@@ -0,0 +1,5 @@
+package com.example.taskmanagementsystem.repositories.projections;
+
+public interface TaskTitleView {
+    String getTitle();
+}
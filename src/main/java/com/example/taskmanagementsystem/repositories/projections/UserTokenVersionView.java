@@ -0,0 +1,6 @@
+package com.example.taskmanagementsystem.repositories.projections;
+
+public interface UserTokenVersionView {
+    Long getId();
+    long getTokenVersion();
+}
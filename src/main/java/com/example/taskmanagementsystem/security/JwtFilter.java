@@ -10,7 +10,6 @@ import lombok.extern.java.Log;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.GenericFilterBean;
 
@@ -30,17 +29,29 @@ public class JwtFilter extends GenericFilterBean {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TokenVersionTable tokenVersionTable;
+
     @Override
     public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain filterChain) throws IOException, ServletException {
         String token = getTokenFromRequest((HttpServletRequest) servletRequest);
 
-        if (token != null && jwtProvider.validateToken(token)) {
-            String userEmail = jwtProvider.getEmailFromToken(token);
+        // the token is verified once, repeated tokens come from the verified-token cache
+        JwtProvider.VerifiedToken verifiedToken = token != null ? jwtProvider.getVerifiedToken(token) : null;
+
+        if (verifiedToken != null) {
             try {
-                UserDetails user = userDetailsService.loadUserByUsername(userEmail);
-                UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
-                        user, null, user.getAuthorities());
-                SecurityContextHolder.getContext().setAuthentication(auth);
+                AuthenticatedUser user = getPrincipal(verifiedToken);
+                if (user != null) {
+                    UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
+                            user, null, user.getAuthorities());
+                    SecurityContextHolder.getContext().setAuthentication(auth);
+                } else {
+                    log.severe("revoked token");
+                }
             } catch (Exception e) {
                 log.severe("invalid subject in the token payload");
             }
@@ -48,6 +59,19 @@ public class JwtFilter extends GenericFilterBean {
         filterChain.doFilter(servletRequest, servletResponse);
     }
 
+    private AuthenticatedUser getPrincipal(JwtProvider.VerifiedToken token) {
+        // a token with the user claims carries the whole principal, only its version is checked
+        if (token.hasUserClaims()) {
+            return tokenVersionTable.isCurrent(token.userId(), token.version())
+                    ? new AuthenticatedUser(token.userId(), token.subject(), token.name())
+                    : null;
+        }
+        // the user is loaded once per cache entry, not once per request; a token issued before the user claims
+        // counts as version 0, so that an email or password change revokes it as well
+        AuthenticatedUser user = principalCache.get(token.subject(), userDetailsService::loadUserByUsername);
+        return tokenVersionTable.isCurrent(user.getId(), JwtProvider.EMAIL_ONLY_TOKEN_VERSION) ? user : null;
+    }
+
     private String getTokenFromRequest(HttpServletRequest request) {
         String bearer = request.getHeader(AUTHORIZATION);
 
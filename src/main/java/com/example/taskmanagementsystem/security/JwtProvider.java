@@ -1,45 +1,155 @@
 package com.example.taskmanagementsystem.security;
 
+import com.example.taskmanagementsystem.models.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.java.Log;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @Log
 public class JwtProvider {
 
+    private static final SignatureAlgorithm SIGNATURE_ALGORITHM = SignatureAlgorithm.HS512;
+    private static final String ID_CLAIM = "id";
+    private static final String NAME_CLAIM = "name";
+    private static final String VERSION_CLAIM = "ver";
+
+    // the token version of a token issued for an email only, before the tokens carried the user claims
+    public static final long EMAIL_ONLY_TOKEN_VERSION = 0L;
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
+    @Value("${security.token-cache.maximum-size:10000}")
+    private long tokenCacheMaximumSize;
+
+    private Key signingKey;
+
+    private JwtParser parser;
+
+    // verified tokens keyed by the token itself, hashing it costs about as much as checking its signature;
+    // every entry expires together with its token
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        // the secret is base64 encoded, as jjwt expects from signWith(SignatureAlgorithm, String)
+        signingKey = new SecretKeySpec(TextCodec.BASE64.decode(jwtSecret), SIGNATURE_ALGORITHM.getJcaName());
+        parser = Jwts.parser().setSigningKey(signingKey);
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(tokenCacheMaximumSize)
+                .expireAfter(new TokenExpiry())
+                .build();
+    }
+
+    /**
+     * Issues a token with the user id, name and token version as claims, so the principal is built from the token alone.
+     */
+    public String generateToken(User user) {
+        return Jwts.builder()
+                .setSubject(user.getEmail())
+                .claim(ID_CLAIM, user.getId())
+                .claim(NAME_CLAIM, user.getName())
+                .claim(VERSION_CLAIM, user.getTokenVersion())
+                .setExpiration(getExpiration())
+                .signWith(SIGNATURE_ALGORITHM, signingKey)
+                .compact();
+    }
+
+    /**
+     * Issues a token carrying the email only, as the tokens issued before the user claims. The user is loaded
+     * by the email on authentication and the token is accepted only while the user token version is still 0.
+     */
     public String generateToken(String email) {
-        Date date = Date.from(LocalDate.now().plusDays(7).atStartOfDay(ZoneId.systemDefault()).toInstant());
         return Jwts.builder()
                 .setSubject(email)
-                .setExpiration(date)
-                .signWith(SignatureAlgorithm.HS512, jwtSecret)
+                .setExpiration(getExpiration())
+                .signWith(SIGNATURE_ALGORITHM, signingKey)
                 .compact();
 
     }
 
-    public boolean validateToken(String token) {
+    /**
+     * Verifies the token once and returns its claims, or null when the token is invalid or expired.
+     * Tokens seen before are served from the cache without checking the signature again.
+     */
+    public VerifiedToken getVerifiedToken(String token) {
+        VerifiedToken verified = verifiedTokens.getIfPresent(token);
+        if (verified != null)
+            return verified;
+
         try {
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token);
-            return true;
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            verified = new VerifiedToken(
+                    claims.getSubject(),
+                    claims.get(ID_CLAIM, Long.class),
+                    claims.get(NAME_CLAIM, String.class),
+                    claims.get(VERSION_CLAIM, Long.class),
+                    claims.getExpiration() != null ? claims.getExpiration().getTime() : null);
+            if (verified.expiresAtMillis() != null)
+                verifiedTokens.put(token, verified);
+            return verified;
         } catch (Exception e) {
             log.severe("invalid token");
         }
-        return false;
+        return null;
+    }
+
+    public String getVerifiedSubject(String token) {
+        VerifiedToken verified = getVerifiedToken(token);
+        return verified != null ? verified.subject() : null;
     }
 
-    public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody();
-        return claims.getSubject();
+    public boolean validateToken(String token) {
+        return getVerifiedSubject(token) != null;
+    }
+
+    private static Date getExpiration() {
+        return Date.from(LocalDate.now().plusDays(7).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * The claims of a verified token; the id, name and version are null in a token issued for an email only.
+     */
+    public record VerifiedToken(String subject, Long userId, String name, Long version, Long expiresAtMillis) {
+
+        public boolean hasUserClaims() {
+            return userId != null;
+        }
+    }
+
+    private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long millisLeft = value.expiresAtMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(millisLeft, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,61 @@
+package com.example.taskmanagementsystem.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded, expiring cache of the authenticated principals keyed by the token subject (the user email).
+ * An entry must be evicted whenever the email, name or password of its user changes.
+ */
+@Component
+public class PrincipalCache {
+
+    @Value("${security.principal-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${security.principal-cache.expire-after-write:PT5M}")
+    private Duration expireAfterWrite;
+
+    private Cache<String, AuthenticatedUser> principals;
+
+    @PostConstruct
+    public void createCache() {
+        principals = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    public AuthenticatedUser get(String subject, Function<String, AuthenticatedUser> loader) {
+        return principals.get(subject, loader);
+    }
+
+    /**
+     * Evicts the principal once the surrounding transaction commits: evicted earlier, a concurrent request could
+     * load the old user again and keep it cached until it expires. Without a transaction it is evicted at once.
+     */
+    public void evict(String subject) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            principals.invalidate(subject);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                principals.invalidate(subject);
+            }
+        });
+    }
+
+    public void evictAll() {
+        principals.invalidateAll();
+    }
+}
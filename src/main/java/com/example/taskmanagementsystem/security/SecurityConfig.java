@@ -1,6 +1,8 @@
 package com.example.taskmanagementsystem.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
@@ -20,6 +22,15 @@ public class SecurityConfig  {
     @Autowired
     private JwtFilter jwtFilter;
 
+    @Value("${security.password-hashing.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    @Value("${security.password-hashing.pool-size:2}")
+    private int hashingPoolSize;
+
+    @Value("${security.password-hashing.queue-capacity:50}")
+    private int hashingQueueCapacity;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -42,7 +53,8 @@ public class SecurityConfig  {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength),
+                hashingPoolSize, hashingQueueCapacity, meterRegistry);
     }
 }
@@ -0,0 +1,80 @@
+package com.example.taskmanagementsystem.security;
+
+import com.example.taskmanagementsystem.models.User;
+import com.example.taskmanagementsystem.repositories.UserRepository;
+import com.example.taskmanagementsystem.repositories.projections.UserTokenVersionView;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory token versions of the users, so that a token is checked for revocation without a database hit.
+ * Only the users whose version was ever changed are kept, any other user has version 0.
+ * The table is loaded on startup and refreshed incrementally with the versions changed since the previous refresh.
+ */
+@Component
+public class TokenVersionTable {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${security.token-versions.refresh-interval:PT30S}")
+    private Duration refreshInterval;
+
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    private volatile Instant lastRefresh = Instant.EPOCH;
+
+    @PostConstruct
+    public void load() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${security.token-versions.refresh-interval:PT30S}")
+    public void refresh() {
+        Instant refreshStart = Instant.now();
+        // the previous window is read again, a change committed after the last refresh may carry an older timestamp
+        Instant since = lastRefresh.equals(Instant.EPOCH) ? lastRefresh : lastRefresh.minus(refreshInterval);
+        for (UserTokenVersionView view : userRepository.findTokenVersionsChangedAfter(since))
+            versions.merge(view.getId(), view.getTokenVersion(), Math::max);
+        lastRefresh = refreshStart;
+    }
+
+    public boolean isCurrent(Long userId, Long version) {
+        return version != null && version.equals(versions.getOrDefault(userId, 0L));
+    }
+
+    /**
+     * Applies a new version of the user at once, so its older tokens are rejected before the next refresh.
+     * When the surrounding transaction rolls back, the stored version of the user is read again.
+     */
+    public void update(User user) {
+        Long userId = user.getId();
+        versions.merge(userId, user.getTokenVersion(), Math::max);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED)
+                        reload(userId);
+                }
+            });
+        }
+    }
+
+    private void reload(Long userId) {
+        userRepository.findTokenVersionById(userId).ifPresentOrElse(
+                view -> versions.put(userId, view.getTokenVersion()),
+                () -> versions.remove(userId));
+    }
+}
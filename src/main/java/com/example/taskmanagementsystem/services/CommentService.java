@@ -1,16 +1,24 @@
 package com.example.taskmanagementsystem.services;
 
+import com.example.taskmanagementsystem.dto.CursorPage;
 import com.example.taskmanagementsystem.dto.comment.CommentDto;
 import com.example.taskmanagementsystem.dto.task.TaskDto;
-import com.example.taskmanagementsystem.models.Task;
+import com.example.taskmanagementsystem.models.Comment;
 import com.example.taskmanagementsystem.models.User;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface CommentService {
     CommentDto findCommentById(Long id);
-    CommentDto createComment(CommentDto commentDto);
-    void deleteCommentById(Long id, User commentatorOrTaskAuthor);
-    Task deleteAllCommentsInTask(Task task);
+    CommentDto findCommentInTask(Long taskId, Long id);
+    List<CommentDto> findAllCommentsByTaskId(Long taskId);
+    CursorPage<CommentDto> findCommentsByTaskIdAfter(Long taskId, String cursor, int limit);
+    Map<Long, List<Comment>> findLatestCommentsByTaskIds(Collection<Long> taskIds, int limit);
+    Map<Long, Long> countCommentsByTaskIds(Collection<Long> taskIds);
+    CommentDto createComment(Long taskId, CommentDto commentDto, Long expectedTaskVersion);
+    void deleteCommentInTask(Long taskId, Long id, User commentatorOrTaskAuthor, Long expectedTaskVersion);
+    int deleteAllCommentsInTasks(Collection<Long> taskIds);
     CommentDto updateText(Long id, String text, User commentator);
 }
@@ -0,0 +1,12 @@
+package com.example.taskmanagementsystem.services;
+
+import com.example.taskmanagementsystem.dto.task.TaskOperation;
+import com.example.taskmanagementsystem.dto.task.TaskOperationResult;
+import com.example.taskmanagementsystem.models.User;
+
+import java.util.List;
+
+public interface TaskBatchService {
+    // chunkSize operations run in one transaction, all of them when null
+    List<TaskOperationResult> executeOperations(List<TaskOperation> operations, Integer chunkSize, User user);
+}
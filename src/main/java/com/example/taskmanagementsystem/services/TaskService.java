@@ -1,30 +1,75 @@
 package com.example.taskmanagementsystem.services;
 
+import com.example.taskmanagementsystem.dto.CursorPage;
 import com.example.taskmanagementsystem.dto.comment.CommentDto;
+import com.example.taskmanagementsystem.dto.task.TaskBulkUpdateRequest;
 import com.example.taskmanagementsystem.dto.task.TaskDto;
+import com.example.taskmanagementsystem.dto.task.TaskExportFormat;
+import com.example.taskmanagementsystem.dto.task.TaskFieldSelection;
+import com.example.taskmanagementsystem.dto.task.TaskPatchRequest;
+import com.example.taskmanagementsystem.dto.task.TaskSearchCriteria;
 import com.example.taskmanagementsystem.models.TaskPriority;
 import com.example.taskmanagementsystem.models.TaskStatus;
 import com.example.taskmanagementsystem.models.User;
 
+import org.springframework.data.domain.Page;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.List;
 
 public interface TaskService {
     List<TaskDto> findAllTasks();
+    CursorPage<TaskDto> findTasksAfter(String cursor, int limit);
+    CursorPage<TaskDto> findTasksAfter(String cursor, int limit, TaskFieldSelection selection);
+    Page<TaskDto> searchTasks(TaskSearchCriteria criteria, int page, int size);
+    Page<TaskDto> searchTasks(TaskSearchCriteria criteria, int page, int size, TaskFieldSelection selection);
+    List<TaskDto> searchTasksByText(String query, int page, int size);
+    List<TaskDto> searchTasksByText(String query, int page, int size, TaskFieldSelection selection);
+    void exportTasks(TaskExportFormat format, OutputStream outputStream) throws IOException;
     TaskDto findTaskById(Long id);
+    TaskDto findTaskById(Long id, boolean allComments);
+    TaskDto findTaskById(Long id, boolean allComments, TaskFieldSelection selection);
+    Long findTaskIdById(Long id);
+    Long findTaskVersionById(Long id);
+    String findTaskTitleById(Long id);
+    String findTaskDescriptionById(Long id);
+    TaskStatus findTaskStatusById(Long id);
+    TaskPriority findTaskPriorityById(Long id);
+    User findTaskAuthorById(Long id);
+    List<User> findTaskAssigneesById(Long id);
+    List<CommentDto> findTaskCommentsById(Long id);
+    CursorPage<CommentDto> findTaskCommentsAfter(Long id, String cursor, int limit);
     TaskDto createTask(TaskDto taskDto);
+    List<TaskDto> createTasks(List<TaskDto> taskDtos);
     void deleteTaskById(Long id, User author);
+    int deleteTasksByIds(List<Long> ids, User author);
 
-    TaskDto updateTaskTitleById(Long id, String title, User author);
-    TaskDto updateTaskDescriptionById(Long id, String description, User author);
-    TaskDto updateTaskStatusById(Long id, Integer taskStatusValue, User authorOrAssignee);
-    TaskDto updateTaskPriorityById(Long id, Integer taskPriorityValue, User author);
-    TaskDto removeAssigneeByIdInTask( Long taskId, Long assigneeId, User author);
-    TaskDto removeAssigneeByEmailInTask(Long taskId, String assigneeEmail, User author);
-    TaskDto appendAssigneeByIdInTask(Long taskId, Long assigneeId, User author);
-    TaskDto appendAssigneeByEmailInTask(Long taskId, String assigneeEmail, User author);
-    TaskDto appendCommentInTask(Long taskId, CommentDto commentDto, User commentator);
-    TaskDto removeCommentByIdInTask(Long taskId, Long commentId, User commentatorOrTaskAuthor);
+    // expectedVersion is the task version the change is based on, null to apply it to any version
+    // the field updates return the new version of the task
+    Long updateTaskTitleById(Long id, String title, User author, Long expectedVersion);
+    Long updateTaskDescriptionById(Long id, String description, User author, Long expectedVersion);
+    Long updateTaskStatusById(Long id, Integer taskStatusValue, User authorOrAssignee, Long expectedVersion);
+    Long updateTaskPriorityById(Long id, Integer taskPriorityValue, User author, Long expectedVersion);
+    Long patchTaskById(Long id, TaskPatchRequest patch, User user, Long expectedVersion);
+    TaskDto removeAssigneesInTask(Long taskId, Collection<Long> assigneeIds, Collection<String> assigneeEmails,
+                                  User author, Long expectedVersion);
+    TaskDto appendAssigneesInTask(Long taskId, Collection<Long> assigneeIds, Collection<String> assigneeEmails,
+                                  User author, Long expectedVersion);
+    CommentDto appendCommentInTask(Long taskId, CommentDto commentDto, User commentator, Long expectedVersion);
+    CommentDto findTaskCommentById(Long taskId, Long commentId);
+    TaskDto removeCommentByIdInTask(Long taskId, Long commentId, User commentatorOrTaskAuthor, Long expectedVersion);
+    // the same changes returning only the new version, the task is not loaded again for a response
+    Long removeTaskAssigneesById(Long taskId, Collection<Long> assigneeIds, Collection<String> assigneeEmails,
+                                 User author, Long expectedVersion);
+    Long appendTaskAssigneesById(Long taskId, Collection<Long> assigneeIds, Collection<String> assigneeEmails,
+                                 User author, Long expectedVersion);
+    Long removeTaskCommentById(Long taskId, Long commentId, User commentatorOrTaskAuthor, Long expectedVersion);
+    int updateTasksByFilter(TaskBulkUpdateRequest request, User user);
 
     List<TaskDto> findAllTasksByAuthor(User author);
+    List<TaskDto> findAllTasksByAuthor(User author, TaskFieldSelection selection);
     List<TaskDto> findAllTasksByAssignee(User assignee);
+    List<TaskDto> findAllTasksByAssignee(User assignee, TaskFieldSelection selection);
 }
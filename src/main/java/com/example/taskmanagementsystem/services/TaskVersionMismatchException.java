@@ -0,0 +1,11 @@
+package com.example.taskmanagementsystem.services;
+
+/**
+ * Thrown when a change is based on a task version (the If-Match ETag) that is no longer the current one.
+ */
+public class TaskVersionMismatchException extends RuntimeException {
+
+    public TaskVersionMismatchException(String message) {
+        super(message);
+    }
+}
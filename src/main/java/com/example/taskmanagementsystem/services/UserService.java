@@ -2,12 +2,15 @@ package com.example.taskmanagementsystem.services;
 
 import com.example.taskmanagementsystem.models.User;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface UserService {
     List<User> findAllUsers();
     User findByEmail(String email);
     User findById(Long id);
+    User getReferenceById(Long id);
+    List<User> findAllByIdsAndEmails(Collection<Long> ids, Collection<String> emails);
     User findByEmailAndPassword(String email, String password);
     void saveUser(User user);
 
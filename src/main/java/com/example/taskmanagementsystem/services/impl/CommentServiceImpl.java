@@ -1,59 +1,166 @@
 package com.example.taskmanagementsystem.services.impl;
 
+import com.example.taskmanagementsystem.dto.CursorPage;
 import com.example.taskmanagementsystem.dto.comment.CommentDto;
 import com.example.taskmanagementsystem.dto.comment.CommentDtoConverter;
 import com.example.taskmanagementsystem.models.Comment;
 import com.example.taskmanagementsystem.models.Task;
 import com.example.taskmanagementsystem.models.User;
 import com.example.taskmanagementsystem.repositories.CommentRepository;
+import com.example.taskmanagementsystem.repositories.TaskRepository;
+import com.example.taskmanagementsystem.repositories.projections.TaskCommentsCountView;
 import com.example.taskmanagementsystem.services.CommentService;
+import com.example.taskmanagementsystem.services.TaskVersionMismatchException;
+import com.example.taskmanagementsystem.services.UserService;
 import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @Primary
 public class CommentServiceImpl implements CommentService {
 
+    private static final String CURSOR_SEPARATOR = "/";
+
     @Autowired
     private CommentRepository commentRepository;
 
     @Autowired
     private CommentDtoConverter commentDtoConverter;
 
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserService userService;
+
     @Override
     public CommentDto findCommentById(Long id) {
         return commentDtoConverter.convertEntityToDto(getCommentById(id));
     }
 
     @Override
-    public CommentDto createComment(CommentDto commentDto) {
-        validateText(commentDto.getText());
+    public CommentDto findCommentInTask(Long taskId, Long id) {
+        return commentDtoConverter.convertEntityToDto(commentRepository.findByIdAndTaskId(id, taskId).orElseThrow(() ->
+                new EntityNotFoundException("comment with id=" + id + " not found in task with id=" + taskId + "!")));
+    }
 
-        Comment comment = commentDtoConverter.convertDtoToEntity(commentDto);
-        comment.setDateTime(LocalDateTime.now());
+    @Override
+    public List<CommentDto> findAllCommentsByTaskId(Long taskId) {
+        return commentRepository.findAllByTaskId(taskId).stream()
+                .map(commentDtoConverter::convertEntityToDto)
+                .toList();
+    }
 
-        return commentDtoConverter.convertEntityToDto(commentRepository.save(comment));
+    @Override
+    public CursorPage<CommentDto> findCommentsByTaskIdAfter(Long taskId, String cursor, int limit) {
+        // one extra row tells whether there is a next page without a count query
+        Comment last = cursor != null ? decodeCursor(cursor) : null;
+        List<Comment> comments = last != null ?
+                commentRepository.findAllByTaskIdAfter(taskId, last.getId(), last.getDateTime(), Limit.of(limit + 1)) :
+                commentRepository.findAllByTaskId(taskId, Limit.of(limit + 1));
+
+        boolean hasNext = comments.size() > limit;
+        if (hasNext)
+            comments = comments.subList(0, limit);
+
+        return CursorPage.<CommentDto>builder()
+                .items(comments.stream().map(commentDtoConverter::convertEntityToDto).toList())
+                .nextCursor(hasNext ? encodeCursor(comments.get(comments.size() - 1)) : null)
+                .build();
+    }
+
+    // the id and the date time of the last comment of the page, the key the comments are ordered by
+    private String encodeCursor(Comment last) {
+        return CursorPage.encodeCursor(last.getId() + CURSOR_SEPARATOR + last.getDateTime());
+    }
+
+    // a cursor issued before the date time was added holds the id only
+    private Comment decodeCursor(String cursor) {
+        String key = CursorPage.decodeCursor(cursor);
+        int separator = key.indexOf(CURSOR_SEPARATOR);
+        try {
+            return Comment.builder()
+                    .id(Long.valueOf(separator < 0 ? key : key.substring(0, separator)))
+                    .dateTime(separator < 0 ? null : LocalDateTime.parse(key.substring(separator + 1)))
+                    .build();
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor=" + cursor);
+        }
     }
 
     @Override
-    public void deleteCommentById(Long id, User commentatorOrTaskAuthor) {
-        Comment comment = getCommentById(id);
+    public Map<Long, List<Comment>> findLatestCommentsByTaskIds(Collection<Long> taskIds, int limit) {
+        if (taskIds.isEmpty())
+            return Map.of();
+        return commentRepository.findLatestByTaskIdIn(taskIds, limit).stream()
+                .collect(Collectors.groupingBy(comment -> comment.getTask().getId()));
+    }
+
+    @Override
+    public Map<Long, Long> countCommentsByTaskIds(Collection<Long> taskIds) {
+        if (taskIds.isEmpty())
+            return Map.of();
+        return commentRepository.countAllByTaskIdIn(taskIds).stream()
+                .collect(Collectors.toMap(TaskCommentsCountView::getTaskId, TaskCommentsCountView::getCommentsCount));
+    }
+
+    /**
+     * Inserts the comment row and increments the task version. The task is loaded through the second-level cache
+     * and its comments are not loaded; the version is checked again by the task UPDATE.
+     */
+    @Override
+    @Transactional
+    public CommentDto createComment(Long taskId, CommentDto commentDto, Long expectedTaskVersion) {
+        validateText(commentDto.getText());
+        Task task = getTaskForCommentChange(taskId, expectedTaskVersion);
+
+        Comment comment = Comment.builder()
+                .text(commentDto.getText())
+                .dateTime(LocalDateTime.now())
+                .commentator(userService.getReferenceById(commentDto.getCommentator().getId()))
+                .task(task)
+                .build();
+
+        // flushed, so that the version is incremented and checked before the comment is returned
+        Comment created = commentRepository.saveAndFlush(comment);
+        // the given commentator is built from the token, its name may be older than the stored one
+        Hibernate.initialize(created.getCommentator());
+        return commentDtoConverter.convertEntityToDto(created);
+    }
+
+    @Override
+    @Transactional
+    public void deleteCommentInTask(Long taskId, Long id, User commentatorOrTaskAuthor, Long expectedTaskVersion) {
+        Task task = getTaskForCommentChange(taskId, expectedTaskVersion);
+        Comment comment = commentRepository.findByIdAndTaskId(id, taskId).orElseThrow(() ->
+                new EntityNotFoundException("comment with id=" + id + " not found in task with id=" + taskId + "!"));
         validateCommentatorOrTaskAuthor(comment, commentatorOrTaskAuthor);
+        // the task comments are not loaded for this; when they already were, the cascade would keep the comment
+        if (Hibernate.isInitialized(task.getComments()))
+            task.getComments().remove(comment);
         commentRepository.delete(comment);
     }
 
     @Override
-    public Task deleteAllCommentsInTask(Task task) {
-        commentRepository.deleteAllByTask(task);
-        task.getComments().clear();
-        return task;
+    public int deleteAllCommentsInTasks(Collection<Long> taskIds) {
+        return commentRepository.deleteAllByTaskIdIn(taskIds);
     }
 
     @Override
+    @Transactional
     public CommentDto updateText(Long id, String text, User commentator) {
         Comment comment = getCommentById(id);
         validateText(text);
@@ -61,10 +168,27 @@ public class CommentServiceImpl implements CommentService {
 
         comment.setText(text);
         comment.setDateTime(LocalDateTime.now());
+        incrementTaskVersion(comment.getTask().getId());
 
         return commentDtoConverter.convertEntityToDto(commentRepository.save(comment));
     }
 
+    // comments are not owned by the task, the task is updated explicitly so that its version is incremented
+    private void incrementTaskVersion(Long taskId) {
+        taskRepository.getReferenceById(taskId).setUpdatedAt(Instant.now());
+    }
+
+    // the version is incremented by the same update, when the comment change is flushed
+    private Task getTaskForCommentChange(Long taskId, Long expectedTaskVersion) {
+        Task task = taskRepository.findById(taskId).orElseThrow(() ->
+                new EntityNotFoundException("task with id=" + taskId + " not found!"));
+        if (expectedTaskVersion != null && !expectedTaskVersion.equals(task.getVersion()))
+            throw new TaskVersionMismatchException("task with id=" + taskId + " has version=" + task.getVersion()
+                    + ", expected version=" + expectedTaskVersion);
+        task.setUpdatedAt(Instant.now());
+        return task;
+    }
+
     private void validateText(String text){
         if (text == null)
             throw new IllegalArgumentException("Comment text is empty!");
@@ -76,14 +200,14 @@ public class CommentServiceImpl implements CommentService {
     }
 
     private void validateCommentatorOrTaskAuthor(Comment comment, User commentatorOrTaskAuthor) {
-        if (!comment.getTask().getAuthor().equals(commentatorOrTaskAuthor)
-                && !comment.getCommentator().equals(commentatorOrTaskAuthor)) {
+        if (!comment.getTask().getAuthor().getId().equals(commentatorOrTaskAuthor.getId())
+                && !comment.getCommentator().getId().equals(commentatorOrTaskAuthor.getId())) {
             throw new IllegalArgumentException("Only the commentator or task author can delete the comment!");
         }
     }
 
     private void validateCommentator(Comment comment, User commentator) {
-        if (!comment.getCommentator().equals(commentator)) {
+        if (!comment.getCommentator().getId().equals(commentator.getId())) {
             throw new IllegalArgumentException("Only the commentator can change the comment!");
         }
     }
@@ -0,0 +1,171 @@
+package com.example.taskmanagementsystem.services.impl;
+
+import com.example.taskmanagementsystem.dto.comment.CommentDto;
+import com.example.taskmanagementsystem.dto.task.TaskOperation;
+import com.example.taskmanagementsystem.dto.task.TaskOperationResult;
+import com.example.taskmanagementsystem.models.User;
+import com.example.taskmanagementsystem.services.TaskBatchService;
+import com.example.taskmanagementsystem.services.TaskService;
+import com.example.taskmanagementsystem.services.TaskVersionMismatchException;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.OptimisticLockException;
+import lombok.extern.java.Log;
+import org.hibernate.StaleObjectStateException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Runs the operations in order through {@link TaskService}, every chunk in its own transaction.
+ * The first failing operation rolls its chunk back and stops the batch: the chunks before it stay committed,
+ * the other operations of its chunk and all the following ones are answered with 424 Failed Dependency.
+ * A chunk whose commit fails stops the batch the same way, each of its operations gets the status of the failure.
+ */
+@Log
+@Service
+public class TaskBatchServiceImpl implements TaskBatchService {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Override
+    public List<TaskOperationResult> executeOperations(List<TaskOperation> operations, Integer chunkSize, User user) {
+        if (operations == null || operations.isEmpty() || operations.size() > TaskServiceImpl.MAX_BATCH_SIZE)
+            throw new IllegalArgumentException("Invalid batch size=" + (operations != null ? operations.size() : null));
+        if (chunkSize != null && chunkSize < 1)
+            throw new IllegalArgumentException("Invalid chunk size=" + chunkSize);
+        int size = chunkSize != null ? chunkSize : operations.size();
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<TaskOperationResult> results = new ArrayList<>(operations.size());
+        for (int from = 0; from < operations.size(); from += size) {
+            List<TaskOperation> chunk = operations.subList(from, Math.min(from + size, operations.size()));
+            int offset = from;
+            List<TaskOperationResult> chunkResults;
+            try {
+                chunkResults = transactionTemplate.execute(status -> executeChunk(chunk, offset, user, status));
+            } catch (RuntimeException e) {
+                // the commit itself failed, e.g. a version checked only when flushing: nothing of the chunk is kept
+                log.warning("batch chunk from operation " + offset + " failed to commit: " + e.getMessage());
+                chunkResults = Collections.nCopies(chunk.size(), TaskOperationResult.builder()
+                        .status(getStatus(e).value())
+                        .error("Rolled back, the chunk failed to commit: " + e.getMessage())
+                        .build());
+            }
+            results.addAll(chunkResults);
+
+            // a failed chunk ends with the result of the failing operation
+            if (chunkResults.get(chunkResults.size() - 1).getStatus() >= HttpStatus.BAD_REQUEST.value()) {
+                int failedIndex = results.size() - 1;
+                while (results.size() < operations.size())
+                    results.add(getFailedDependency("Not executed after operation " + failedIndex));
+                break;
+            }
+        }
+        return results;
+    }
+
+    private List<TaskOperationResult> executeChunk(List<TaskOperation> chunk, int offset, User user,
+                                                   TransactionStatus status) {
+        List<TaskOperationResult> results = new ArrayList<>(chunk.size());
+        for (TaskOperation operation : chunk) {
+            try {
+                results.add(execute(operation, user));
+            } catch (RuntimeException e) {
+                // nothing of the chunk is committed, the operations done before are reported as rolled back
+                status.setRollbackOnly();
+                int failedIndex = offset + results.size();
+                log.warning("batch operation " + failedIndex + " failed: " + e.getMessage());
+                List<TaskOperationResult> rolledBack = new ArrayList<>(Collections.nCopies(results.size(),
+                        getFailedDependency("Rolled back with operation " + failedIndex)));
+                rolledBack.add(TaskOperationResult.builder()
+                        .status(getStatus(e).value())
+                        .error(e.getMessage())
+                        .build());
+                return rolledBack;
+            }
+        }
+        return results;
+    }
+
+    private TaskOperationResult execute(TaskOperation operation, User user) {
+        if (operation.getOp() == null)
+            throw new IllegalArgumentException("Invalid op=null");
+        Long taskId = operation.getTaskId();
+        if (taskId == null)
+            throw new IllegalArgumentException("Invalid task-id=null");
+        Long expectedVersion = operation.getExpectedVersion();
+
+        return switch (operation.getOp()) {
+            case PATCH -> {
+                if (operation.getPatch() == null)
+                    throw new IllegalArgumentException("Invalid patch=null");
+                yield getVersionResult(taskService.patchTaskById(taskId, operation.getPatch(), user, expectedVersion));
+            }
+            case ADD_ASSIGNEES -> getVersionResult(taskService.appendTaskAssigneesById(taskId,
+                    getValues(operation.getAssigneeIds()), getValues(operation.getAssigneeEmails()),
+                    user, expectedVersion));
+            case REMOVE_ASSIGNEES -> getVersionResult(taskService.removeTaskAssigneesById(taskId,
+                    getValues(operation.getAssigneeIds()), getValues(operation.getAssigneeEmails()),
+                    user, expectedVersion));
+            case ADD_COMMENT -> {
+                CommentDto comment = taskService.appendCommentInTask(taskId,
+                        CommentDto.builder().text(operation.getCommentText()).build(), user, expectedVersion);
+                yield TaskOperationResult.builder()
+                        .status(HttpStatus.CREATED.value())
+                        .commentId(comment.getId())
+                        .build();
+            }
+            case REMOVE_COMMENT -> {
+                if (operation.getCommentId() == null)
+                    throw new IllegalArgumentException("Invalid comment-id=null");
+                yield getVersionResult(taskService.removeTaskCommentById(taskId, operation.getCommentId(),
+                        user, expectedVersion));
+            }
+            case DELETE -> {
+                taskService.deleteTaskById(taskId, user);
+                yield TaskOperationResult.builder().status(HttpStatus.NO_CONTENT.value()).build();
+            }
+        };
+    }
+
+    // the statuses of GlobalControllerExceptionHandler for the same failures of the single requests
+    private HttpStatus getStatus(RuntimeException e) {
+        if (e instanceof IllegalArgumentException)
+            return HttpStatus.BAD_REQUEST;
+        if (e instanceof EntityNotFoundException)
+            return HttpStatus.NOT_FOUND;
+        if (e instanceof OptimisticLockingFailureException || e instanceof OptimisticLockException
+                || e instanceof StaleObjectStateException)
+            return HttpStatus.CONFLICT;
+        if (e instanceof TaskVersionMismatchException)
+            return HttpStatus.PRECONDITION_FAILED;
+        log.severe(e.toString());
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+
+    private TaskOperationResult getVersionResult(Long version) {
+        return TaskOperationResult.builder().status(HttpStatus.OK.value()).version(version).build();
+    }
+
+    private TaskOperationResult getFailedDependency(String error) {
+        return TaskOperationResult.builder().status(HttpStatus.FAILED_DEPENDENCY.value()).error(error).build();
+    }
+
+    private <T> List<T> getValues(List<T> values) {
+        return values == null ? List.of() : values.stream()
+                .filter(value -> value != null && !value.toString().isBlank())
+                .toList();
+    }
+}
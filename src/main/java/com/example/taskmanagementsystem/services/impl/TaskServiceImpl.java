@@ -1,26 +1,81 @@
 package com.example.taskmanagementsystem.services.impl;
 
+import com.example.taskmanagementsystem.dto.CursorPage;
 import com.example.taskmanagementsystem.dto.comment.CommentDto;
 import com.example.taskmanagementsystem.dto.comment.CommentDtoConverter;
+import com.example.taskmanagementsystem.dto.task.TaskBulkUpdateRequest;
 import com.example.taskmanagementsystem.dto.task.TaskDto;
 import com.example.taskmanagementsystem.dto.task.TaskDtoConverter;
+import com.example.taskmanagementsystem.dto.task.TaskExportFormat;
+import com.example.taskmanagementsystem.dto.task.TaskFieldSelection;
+import com.example.taskmanagementsystem.dto.task.TaskExportRow;
+import com.example.taskmanagementsystem.dto.task.TaskPatchRequest;
+import com.example.taskmanagementsystem.dto.task.TaskSearchCriteria;
 import com.example.taskmanagementsystem.models.*;
 import com.example.taskmanagementsystem.repositories.TaskRepository;
+import com.example.taskmanagementsystem.repositories.TaskSpecifications;
+import com.example.taskmanagementsystem.repositories.projections.TaskAssigneeView;
+import com.example.taskmanagementsystem.repositories.projections.TaskAuthorIdView;
+import com.example.taskmanagementsystem.repositories.projections.TaskDescriptionView;
+import com.example.taskmanagementsystem.repositories.projections.TaskPriorityView;
+import com.example.taskmanagementsystem.repositories.projections.TaskStatusView;
+import com.example.taskmanagementsystem.repositories.projections.TaskTitleView;
 import com.example.taskmanagementsystem.services.CommentService;
 import com.example.taskmanagementsystem.services.TaskService;
+import com.example.taskmanagementsystem.services.TaskVersionMismatchException;
 import com.example.taskmanagementsystem.services.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Service
 @Primary
 public class TaskServiceImpl implements TaskService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int EXPORT_CHUNK_SIZE = 500;
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
     private TaskRepository taskRepository;
 
@@ -36,158 +91,581 @@ public class TaskServiceImpl implements TaskService {
     @Autowired
     private TaskDtoConverter taskDtoConverter;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Override
     public List<TaskDto> findAllTasks() {
         List<Task> tasks = taskRepository.findAll();
-        return tasks.stream().map(taskDtoConverter::convertEntityToDto).toList();
+        return convertEntitiesToDtos(tasks);
+    }
+
+    @Override
+    public CursorPage<TaskDto> findTasksAfter(String cursor, int limit) {
+        return findTasksAfter(cursor, limit, TaskFieldSelection.full());
+    }
+
+    @Override
+    public CursorPage<TaskDto> findTasksAfter(String cursor, int limit, TaskFieldSelection selection) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE)
+            throw new IllegalArgumentException("Invalid limit=" + limit);
+
+        Long afterId = cursor != null ? CursorPage.decodeIdCursor(cursor) : 0L;
+
+        // one extra row tells whether there is a next page without a count query
+        if (!selection.isFull()) {
+            List<Tuple> rows = taskRepository.findFieldsBy(TaskSpecifications.hasIdGreaterThan(afterId)
+                    .and(TaskSpecifications.orderBy(List.of())), selection.getFields(), PageRequest.of(0, limit + 1));
+            boolean hasNext = rows.size() > limit;
+            if (hasNext)
+                rows = rows.subList(0, limit);
+
+            return CursorPage.<TaskDto>builder()
+                    .items(convertTuplesToDtos(rows, selection))
+                    .nextCursor(hasNext ? CursorPage.encodeIdCursor(rows.get(rows.size() - 1).get("id", Long.class)) : null)
+                    .build();
+        }
+
+        List<Task> tasks = taskRepository.findAllByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit + 1));
+        boolean hasNext = tasks.size() > limit;
+        if (hasNext)
+            tasks = tasks.subList(0, limit);
+
+        return CursorPage.<TaskDto>builder()
+                .items(convertEntitiesToDtos(tasks))
+                .nextCursor(hasNext ? CursorPage.encodeIdCursor(tasks.get(tasks.size() - 1).getId()) : null)
+                .build();
+    }
+
+    @Override
+    public Page<TaskDto> searchTasks(TaskSearchCriteria criteria, int page, int size) {
+        return searchTasks(criteria, page, size, TaskFieldSelection.full());
+    }
+
+    @Override
+    public Page<TaskDto> searchTasks(TaskSearchCriteria criteria, int page, int size, TaskFieldSelection selection) {
+        if (page < 0)
+            throw new IllegalArgumentException("Invalid page=" + page);
+        if (size < 1 || size > MAX_PAGE_SIZE)
+            throw new IllegalArgumentException("Invalid size=" + size);
+
+        Specification<Task> specification = Specification.where(TaskSpecifications.orderBy(
+                criteria.getSort() != null ? criteria.getSort() : List.of()));
+        if (criteria.getStatusValue() != null)
+            specification = specification.and(TaskSpecifications.hasStatus(TaskStatus.getByValue(criteria.getStatusValue())));
+        if (criteria.getPriorityValue() != null)
+            specification = specification.and(TaskSpecifications.hasPriority(TaskPriority.getByValue(criteria.getPriorityValue())));
+        if (criteria.getAuthorId() != null)
+            specification = specification.and(TaskSpecifications.hasAuthor(criteria.getAuthorId()));
+        if (criteria.getAssigneeId() != null)
+            specification = specification.and(TaskSpecifications.hasAssignee(criteria.getAssigneeId()));
+        if (criteria.getTitlePrefix() != null && !criteria.getTitlePrefix().isEmpty())
+            specification = specification.and(TaskSpecifications.titleStartsWith(criteria.getTitlePrefix()));
+
+        PageRequest pageRequest = PageRequest.of(page, size);
+        if (!selection.isFull()) {
+            List<Tuple> rows = taskRepository.findFieldsBy(specification, selection.getFields(), pageRequest);
+            return new PageImpl<>(convertTuplesToDtos(rows, selection), pageRequest, taskRepository.count(specification));
+        }
+
+        Page<Task> tasks = taskRepository.findAll(specification, pageRequest);
+        return new PageImpl<>(convertEntitiesToDtos(tasks.getContent()),
+                tasks.getPageable(), tasks.getTotalElements());
+    }
+
+    @Override
+    public List<TaskDto> searchTasksByText(String query, int page, int size) {
+        return searchTasksByText(query, page, size, TaskFieldSelection.full());
+    }
+
+    @Override
+    public List<TaskDto> searchTasksByText(String query, int page, int size, TaskFieldSelection selection) {
+        if (query == null || query.isBlank())
+            throw new IllegalArgumentException("Invalid query=" + query);
+        if (page < 0)
+            throw new IllegalArgumentException("Invalid page=" + page);
+        if (size < 1 || size > MAX_PAGE_SIZE)
+            throw new IllegalArgumentException("Invalid size=" + size);
+
+        List<Long> ids = taskRepository.findIdsByFullText(query, page * size, size);
+        Map<Long, TaskDto> tasks = (selection.isFull()
+                ? convertEntitiesToDtos(taskRepository.findAllById(ids))
+                : convertTuplesToDtos(taskRepository.findFieldsBy(TaskSpecifications.hasIdIn(ids),
+                        selection.getFields(), Pageable.unpaged()), selection))
+                .stream()
+                .collect(Collectors.toMap(TaskDto::getId, Function.identity()));
+
+        // keep the rank order of the search query
+        return ids.stream()
+                .map(tasks::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportTasks(TaskExportFormat format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        // the rows are written by the Spring configured mapper, as the task responses are
+        ObjectWriter rowWriter = objectMapper.writerFor(TaskExportRow.class);
+        if (format == TaskExportFormat.CSV)
+            writer.write(TaskExportRow.CSV_HEADER + "\n");
+
+        // a full export would evict the hot entries of the second-level cache; the streamed rows are loaded
+        // after the query has returned, so the cache is ignored by the session and not by a query hint
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode cacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.IGNORE);
+        try (Stream<Task> tasks = taskRepository.streamAllByOrderByIdAsc()) {
+            int rows = 0;
+            for (Iterator<Task> iterator = tasks.iterator(); iterator.hasNext(); ) {
+                TaskExportRow row = convertEntityToExportRow(iterator.next());
+                writer.write(format == TaskExportFormat.CSV
+                        ? convertExportRowToCsv(row)
+                        : rowWriter.writeValueAsString(row));
+                writer.write("\n");
+
+                // detach the exported chunk so that the persistence context does not grow with the export
+                if (++rows % EXPORT_CHUNK_SIZE == 0) {
+                    writer.flush();
+                    entityManager.clear();
+                }
+            }
+        } finally {
+            session.setCacheMode(cacheMode);
+        }
+        writer.flush();
     }
 
     @Override
     public TaskDto findTaskById(Long id) {
         Task task = getTaskById(id);
-        return taskDtoConverter.convertEntityToDto(task);
+        return convertEntitiesToDtos(List.of(task)).get(0);
+    }
+
+    @Override
+    public TaskDto findTaskById(Long id, boolean allComments) {
+        return findTaskById(id, allComments, TaskFieldSelection.full());
+    }
+
+    @Override
+    public TaskDto findTaskById(Long id, boolean allComments, TaskFieldSelection selection) {
+        TaskDto task = selection.isFull()
+                ? findTaskById(id)
+                : convertTuplesToDtos(taskRepository.findFieldsBy(TaskSpecifications.hasIdIn(List.of(id)),
+                        selection.getFields(), Pageable.unpaged()), selection).stream()
+                .findFirst()
+                .orElseThrow(() -> new EntityNotFoundException("task with id=" + id + " not found!"));
+        if (allComments && selection.includes("comments"))
+            task.setComments(commentService.findAllCommentsByTaskId(id).stream()
+                    .map(commentDtoConverter::convertDtoToEntity)
+                    .collect(Collectors.toList()));
+        return task;
+    }
+
+    @Override
+    public Long findTaskIdById(Long id) {
+        validateTaskExists(id);
+        return id;
+    }
+
+    @Override
+    public Long findTaskVersionById(Long id) {
+        return taskRepository.findVersionById(id)
+                .orElseThrow(() -> new EntityNotFoundException("task with id=" + id + " not found!"));
+    }
+
+    @Override
+    public String findTaskTitleById(Long id) {
+        return getTaskViewById(id, TaskTitleView.class).getTitle();
+    }
+
+    @Override
+    public String findTaskDescriptionById(Long id) {
+        return getTaskViewById(id, TaskDescriptionView.class).getDescription();
+    }
+
+    @Override
+    public TaskStatus findTaskStatusById(Long id) {
+        return getTaskViewById(id, TaskStatusView.class).getStatus();
+    }
+
+    @Override
+    public TaskPriority findTaskPriorityById(Long id) {
+        return getTaskViewById(id, TaskPriorityView.class).getPriority();
+    }
+
+    @Override
+    public User findTaskAuthorById(Long id) {
+        return taskRepository.findAuthorById(id)
+                .orElseThrow(() -> new EntityNotFoundException("task with id=" + id + " not found!"));
+    }
+
+    @Override
+    public List<User> findTaskAssigneesById(Long id) {
+        List<User> assignees = taskRepository.findAssigneesById(id);
+        if (assignees.isEmpty())
+            validateTaskExists(id);
+        return assignees;
+    }
+
+    @Override
+    public List<CommentDto> findTaskCommentsById(Long id) {
+        List<CommentDto> comments = commentService.findAllCommentsByTaskId(id);
+        if (comments.isEmpty())
+            validateTaskExists(id);
+        return comments;
+    }
+
+    @Override
+    public CursorPage<CommentDto> findTaskCommentsAfter(Long id, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE)
+            throw new IllegalArgumentException("Invalid limit=" + limit);
+
+        CursorPage<CommentDto> comments = commentService.findCommentsByTaskIdAfter(id, cursor, limit);
+        if (comments.getItems().isEmpty())
+            validateTaskExists(id);
+        return comments;
     }
 
     @Override
     public TaskDto createTask(TaskDto taskDto) {
         validateTaskDto(taskDto);
 
-        List<User> assignees = getAssigneesFromDto(taskDto);
+        Set<User> assignees = getAssigneesFromDtos(List.of(taskDto)).get(0);
 
         Task task = taskDtoConverter.convertDtoToEntity(taskDto);
+        task.setAuthor(getUserReference(taskDto.getAuthor()));
         task.setAssignees(assignees);
 
+        // the task was just created, it has no comments to load
         return taskDtoConverter.convertEntityToDto(taskRepository.save(task));
     }
 
     @Override
+    @Transactional
+    public List<TaskDto> createTasks(List<TaskDto> taskDtos) {
+        if (taskDtos == null || taskDtos.isEmpty() || taskDtos.size() > MAX_BATCH_SIZE)
+            throw new IllegalArgumentException("Invalid batch size=" + (taskDtos != null ? taskDtos.size() : null));
+        taskDtos.forEach(this::validateTaskDto);
+
+        // all lookups run before the first persist, so no query flushes the insert batches half-way
+        List<Set<User>> assignees = getAssigneesFromDtos(taskDtos);
+        List<Task> tasks = IntStream.range(0, taskDtos.size())
+                .mapToObj(i -> {
+                    Task task = taskDtoConverter.convertDtoToEntity(taskDtos.get(i));
+                    task.setAuthor(getUserReference(taskDtos.get(i).getAuthor()));
+                    task.setAssignees(assignees.get(i));
+                    return task;
+                }).toList();
+
+        return taskRepository.saveAll(tasks).stream()
+                .map(taskDtoConverter::convertEntityToDto)
+                .toList();
+    }
+
+    @Override
+    @Transactional
     public void deleteTaskById(Long id, User user) {
-        Task task = getTaskById(id);
-        validateAuthor(task, user);
-        task = commentService.deleteAllCommentsInTask(task);
-        taskRepository.delete(task);
+        deleteTasksByIds(List.of(id), user);
     }
 
     @Override
-    public TaskDto updateTaskTitleById(Long id, String title, User author) {
-        Task task = getTaskById(id);
+    @Transactional
+    public int deleteTasksByIds(List<Long> ids, User author) {
+        if (ids == null || ids.isEmpty() || ids.size() > MAX_BATCH_SIZE)
+            throw new IllegalArgumentException("Invalid batch size=" + (ids != null ? ids.size() : null));
+
+        Set<Long> taskIds = new HashSet<>(ids);
+        List<TaskAuthorIdView> tasks = taskRepository.findAuthorIdsByIdIn(taskIds);
+        if (tasks.size() < taskIds.size()) {
+            tasks.forEach(task -> taskIds.remove(task.getId()));
+            throw new EntityNotFoundException("tasks with ids=" + taskIds + " not found!");
+        }
+        for (TaskAuthorIdView task : tasks) {
+            if (!task.getAuthorId().equals(author.getId()))
+                throw new IllegalArgumentException("Only the author can update the task");
+        }
 
-        validateAuthor(task, author);
+        // one statement per table instead of loading and removing every comment and join row
+        commentService.deleteAllCommentsInTasks(taskIds);
+        taskRepository.deleteAssigneesByTaskIdIn(taskIds);
+        return taskRepository.deleteAllByIdIn(taskIds);
+    }
+
+    @Override
+    @Transactional
+    public Long updateTaskTitleById(Long id, String title, User author, Long expectedVersion) {
         if (title == null || title.isBlank())
             throw new IllegalArgumentException("Invalid title=" + title);
 
+        Task task = getTaskForUpdate(id, author, expectedVersion, false);
         task.setTitle(title);
-
-        return taskDtoConverter.convertEntityToDto(taskRepository.save(task));
+        return flushVersion(task);
     }
 
     @Override
-    public TaskDto updateTaskDescriptionById(Long id, String description, User author) {
-        Task task = getTaskById(id);
-
-        validateAuthor(task, author);
+    @Transactional
+    public Long updateTaskDescriptionById(Long id, String description, User author, Long expectedVersion) {
         if (description == null)
             throw new IllegalArgumentException("Invalid description=null");
 
+        Task task = getTaskForUpdate(id, author, expectedVersion, false);
         task.setDescription(description);
-        return taskDtoConverter.convertEntityToDto(taskRepository.save(task));
+        return flushVersion(task);
     }
 
     @Override
-    public TaskDto updateTaskStatusById(Long id, Integer taskStatusValue, User authorOrAssignee) {
-        Task task = getTaskById(id);
-
-        validateAuthorOrAssignee(task, authorOrAssignee);
-        task.setStatus(TaskStatus.getByValue(taskStatusValue));
-        return taskDtoConverter.convertEntityToDto(taskRepository.save(task));
+    @Transactional
+    public Long updateTaskStatusById(Long id, Integer taskStatusValue, User authorOrAssignee, Long expectedVersion) {
+        if (taskStatusValue == null)
+            throw new IllegalArgumentException("Invalid status value=null");
+
+        TaskStatus status = TaskStatus.getByValue(taskStatusValue);
+        Task task = getTaskForUpdate(id, authorOrAssignee, expectedVersion, true);
+        task.setStatus(status);
+        return flushVersion(task);
     }
 
     @Override
-    public TaskDto updateTaskPriorityById(Long id, Integer taskPriorityValue, User author) {
-        Task task = getTaskById(id);
-
-        validateAuthor(task, author);
-        task.setPriority(TaskPriority.getByValue(taskPriorityValue));
-        return taskDtoConverter.convertEntityToDto(taskRepository.save(task));
+    @Transactional
+    public Long updateTaskPriorityById(Long id, Integer taskPriorityValue, User author, Long expectedVersion) {
+        if (taskPriorityValue == null)
+            throw new IllegalArgumentException("Invalid priority value=null");
+
+        TaskPriority priority = TaskPriority.getByValue(taskPriorityValue);
+        Task task = getTaskForUpdate(id, author, expectedVersion, false);
+        task.setPriority(priority);
+        return flushVersion(task);
     }
 
     @Override
-    public TaskDto removeAssigneeByIdInTask(Long taskId, Long assigneeId, User author) {
-        Task task = getTaskById(taskId);
-        User assignee = userService.findById(assigneeId);
-
-        validateAuthor(task, author);
-
-        if (task.getAssignees().remove(assignee))
-            return taskDtoConverter.convertEntityToDto(taskRepository.save(task));
-
-        throw new IllegalArgumentException("Assignee with id=" + assigneeId +" does not exist in the Task.assigness");
+    @Transactional
+    public Long patchTaskById(Long id, TaskPatchRequest patch, User user, Long expectedVersion) {
+        List<Consumer<Task>> changes = new ArrayList<>();
+        if (patch.getTitle() != null) {
+            String title = patch.getTitle().orElse(null);
+            if (title == null || title.isBlank())
+                throw new IllegalArgumentException("Invalid title=" + title);
+            changes.add(task -> task.setTitle(title));
+        }
+        if (patch.getDescription() != null) {
+            // a removed description is stored empty, like the description of a task created without one
+            String description = patch.getDescription().orElse("");
+            changes.add(task -> task.setDescription(description));
+        }
+        if (patch.getStatusValue() != null) {
+            TaskStatus status = TaskStatus.getByValue(patch.getStatusValue()
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid status value=null")));
+            changes.add(task -> task.setStatus(status));
+        }
+        if (patch.getPriorityValue() != null) {
+            TaskPriority priority = TaskPriority.getByValue(patch.getPriorityValue()
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid priority value=null")));
+            changes.add(task -> task.setPriority(priority));
+        }
+        if (changes.isEmpty())
+            throw new IllegalArgumentException("No task fields given");
+
+        // an assignee may change the status alone, any other field only the author
+        boolean assigneeAllowed = changes.size() == 1 && patch.getStatusValue() != null;
+        Task task = getTaskForUpdate(id, user, expectedVersion, assigneeAllowed);
+        changes.forEach(change -> change.accept(task));
+        return flushVersion(task);
     }
 
     @Override
-    public TaskDto removeAssigneeByEmailInTask(Long taskId, String assigneeEmail, User author) {
-        Task task = getTaskById(taskId);
-        User assignee = userService.findByEmail(assigneeEmail);
-
-        validateAuthor(task, author);
-        if (task.getAssignees().remove(assignee))
-            return taskDtoConverter.convertEntityToDto(taskRepository.save(task));
-
-        throw new IllegalArgumentException("Assignee with email=" + assigneeEmail +" does not exist in the Task.assigness");
+    @Transactional
+    public TaskDto removeAssigneesInTask(Long taskId, Collection<Long> assigneeIds, Collection<String> assigneeEmails,
+                                         User author, Long expectedVersion) {
+        removeTaskAssigneesById(taskId, assigneeIds, assigneeEmails, author, expectedVersion);
+        return findTaskById(taskId);
     }
 
     @Override
-    public TaskDto appendAssigneeByIdInTask(Long taskId, Long assigneeId, User author) {
-        Task task = getTaskById(taskId);
-        User assignee = userService.findById(assigneeId);
+    @Transactional
+    public Long removeTaskAssigneesById(Long taskId, Collection<Long> assigneeIds, Collection<String> assigneeEmails,
+                                        User author, Long expectedVersion) {
+        Task task = getTaskForUpdate(taskId, author, expectedVersion, false);
+        Set<User> users = getUsers(assigneeIds, assigneeEmails);
+
+        if (!task.getAssignees().containsAll(users))
+            throw new IllegalArgumentException("Assignees with ids=" + assigneeIds + " and emails=" + assigneeEmails
+                    + " do not all exist in the Task.assignees");
+        // one join row is deleted per assignee, the version is incremented with the collection
+        task.getAssignees().removeAll(users);
+        return flushVersion(task);
+    }
 
-        validateAuthor(task, author);
-        if (!task.getAssignees().contains(assignee))
-            task.getAssignees().add(assignee);
+    @Override
+    @Transactional
+    public TaskDto appendAssigneesInTask(Long taskId, Collection<Long> assigneeIds, Collection<String> assigneeEmails,
+                                         User author, Long expectedVersion) {
+        appendTaskAssigneesById(taskId, assigneeIds, assigneeEmails, author, expectedVersion);
+        return findTaskById(taskId);
+    }
 
-        return taskDtoConverter.convertEntityToDto(taskRepository.save(task));
+    @Override
+    @Transactional
+    public Long appendTaskAssigneesById(Long taskId, Collection<Long> assigneeIds, Collection<String> assigneeEmails,
+                                        User author, Long expectedVersion) {
+        Task task = getTaskForUpdate(taskId, author, expectedVersion, false);
+        Set<User> users = getUsers(assigneeIds, assigneeEmails);
+
+        // the users already assigned are skipped, one join row is inserted per new assignee
+        // and the version is incremented only when the collection changed
+        task.getAssignees().addAll(users);
+        return flushVersion(task);
     }
 
     @Override
-    public TaskDto appendAssigneeByEmailInTask(Long taskId, String assigneeEmail, User author) {
-        Task task = getTaskById(taskId);
-        User assignee = userService.findByEmail(assigneeEmail);
+    public CommentDto appendCommentInTask(Long taskId, CommentDto commentDto, User commentator, Long expectedVersion) {
+        commentDto.setCommentator(commentator);
+        return commentService.createComment(taskId, commentDto, expectedVersion);
+    }
 
-        validateAuthor(task, author);
-        if (!task.getAssignees().contains(assignee))
-            task.getAssignees().add(assignee);
+    @Override
+    public CommentDto findTaskCommentById(Long taskId, Long commentId) {
+        return commentService.findCommentInTask(taskId, commentId);
+    }
 
-        return taskDtoConverter.convertEntityToDto(taskRepository.save(task));
+    @Override
+    @Transactional
+    public TaskDto removeCommentByIdInTask(Long taskId, Long commentId, User commentatorOrTaskAuthor, Long expectedVersion) {
+        removeTaskCommentById(taskId, commentId, commentatorOrTaskAuthor, expectedVersion);
+        return findTaskById(taskId);
     }
 
     @Override
-    public TaskDto appendCommentInTask(Long taskId, CommentDto commentDto, User commentator) {
-        Task task = getTaskById(taskId);
-        commentDto.setCommentator(commentator);
-        commentDto.setTask(task);
-        task.getComments().add(commentDtoConverter.convertDtoToEntity(commentService.createComment(commentDto)));
-        return taskDtoConverter.convertEntityToDto(taskRepository.save(task));
+    @Transactional
+    public Long removeTaskCommentById(Long taskId, Long commentId, User commentatorOrTaskAuthor, Long expectedVersion) {
+        // the task comments are not loaded, only the comment row is deleted
+        commentService.deleteCommentInTask(taskId, commentId, commentatorOrTaskAuthor, expectedVersion);
+        // the task was loaded into the persistence context by the comment service, it is not queried again
+        return flushVersion(entityManager.find(Task.class, taskId));
     }
 
     @Override
-    public TaskDto removeCommentByIdInTask(Long taskId, Long commentId, User commentatorOrTaskAuthor) {
-        Task task = getTaskById(taskId);
-        Comment comment = commentDtoConverter.convertDtoToEntity(commentService.findCommentById(commentId));
-        commentService.deleteCommentById(commentId, commentatorOrTaskAuthor);
-        task.getComments().remove(comment);
-        return taskDtoConverter.convertEntityToDto(taskRepository.save(task));
+    @Transactional
+    public int updateTasksByFilter(TaskBulkUpdateRequest request, User user) {
+        long changes = Stream.of(request.getNewStatusValue(), request.getNewPriorityValue(),
+                request.getNewAssigneeId()).filter(Objects::nonNull).count();
+        if (changes != 1)
+            throw new IllegalArgumentException("Exactly one of new status, new priority or new assignee must be set");
+
+        TaskStatus status = request.getStatusValue() != null ? TaskStatus.getByValue(request.getStatusValue()) : null;
+        TaskPriority priority = request.getPriorityValue() != null ? TaskPriority.getByValue(request.getPriorityValue()) : null;
+
+        // the author/assignee rules are part of the WHERE clause, other tasks of the filter stay untouched
+        if (request.getNewStatusValue() != null)
+            return taskRepository.updateStatusByFilter(TaskStatus.getByValue(request.getNewStatusValue()),
+                    status, priority, request.getAuthorId(), request.getAssigneeId(), user.getId());
+
+        if (request.getNewPriorityValue() != null)
+            return taskRepository.updatePriorityByFilter(TaskPriority.getByValue(request.getNewPriorityValue()),
+                    status, priority, request.getAuthorId(), request.getAssigneeId(), user.getId());
+
+        if (request.getAssigneeId() == null || request.getAssigneeId().equals(request.getNewAssigneeId()))
+            throw new IllegalArgumentException("Invalid assignee-id=" + request.getAssigneeId());
+        userService.findById(request.getNewAssigneeId());
+
+        String statusName = status != null ? status.name() : null;
+        String priorityName = priority != null ? priority.name() : null;
+        taskRepository.incrementVersionByFilter(status, priority, request.getAuthorId(), request.getAssigneeId(), user.getId());
+        taskRepository.insertAssigneeByFilter(request.getNewAssigneeId(), statusName, priorityName,
+                request.getAuthorId(), request.getAssigneeId(), user.getId());
+        return taskRepository.deleteAssigneeByFilter(statusName, priorityName,
+                request.getAuthorId(), request.getAssigneeId(), user.getId());
     }
 
     @Override
     public List<TaskDto> findAllTasksByAuthor(User author) {
         List<Task> tasks = taskRepository.findAllByAuthor(author);
-        return tasks.stream().map(taskDtoConverter::convertEntityToDto).toList();
+        return convertEntitiesToDtos(tasks);
+    }
+
+    @Override
+    public List<TaskDto> findAllTasksByAuthor(User author, TaskFieldSelection selection) {
+        if (selection.isFull())
+            return findAllTasksByAuthor(author);
+
+        List<Tuple> rows = taskRepository.findFieldsBy(TaskSpecifications.hasAuthor(author.getId())
+                .and(TaskSpecifications.orderBy(List.of())), selection.getFields(), Pageable.unpaged());
+        return convertTuplesToDtos(rows, selection);
     }
 
     @Override
     public List<TaskDto> findAllTasksByAssignee(User assignee) {
         List<Task> tasks = taskRepository.findAllByAssigneesContains(assignee);
-        return tasks.stream().map(taskDtoConverter::convertEntityToDto).toList();
+        return convertEntitiesToDtos(tasks);
+    }
+
+    @Override
+    public List<TaskDto> findAllTasksByAssignee(User assignee, TaskFieldSelection selection) {
+        if (selection.isFull())
+            return findAllTasksByAssignee(assignee);
+
+        List<Tuple> rows = taskRepository.findFieldsBy(TaskSpecifications.hasAssignee(assignee.getId())
+                .and(TaskSpecifications.orderBy(List.of())), selection.getFields(), Pageable.unpaged());
+        return convertTuplesToDtos(rows, selection);
+    }
+
+    /**
+     * Attaches the comment count and the latest comments of all the tasks with two queries,
+     * instead of loading the whole comment collection of every task.
+     */
+    private List<TaskDto> convertEntitiesToDtos(List<Task> tasks) {
+        if (tasks.isEmpty())
+            return List.of();
+
+        List<Long> ids = tasks.stream().map(Task::getId).toList();
+        Map<Long, Long> commentsCounts = commentService.countCommentsByTaskIds(ids);
+        Map<Long, List<Comment>> latestComments =
+                commentService.findLatestCommentsByTaskIds(ids, TaskDtoConverter.LATEST_COMMENTS_SIZE);
+
+        return tasks.stream()
+                .map(task -> taskDtoConverter.convertEntityToDto(task,
+                        latestComments.getOrDefault(task.getId(), new ArrayList<>()),
+                        commentsCounts.getOrDefault(task.getId(), 0L)))
+                .toList();
+    }
+
+    /**
+     * Builds the tasks out of the selected columns; assignees and comments are loaded only when included,
+     * the fields that are not selected stay null.
+     */
+    private List<TaskDto> convertTuplesToDtos(List<Tuple> rows, TaskFieldSelection selection) {
+        if (rows.isEmpty())
+            return List.of();
+
+        List<Long> ids = rows.stream().map(row -> row.get("id", Long.class)).toList();
+        Map<Long, List<User>> assignees = selection.includes("assignees")
+                ? taskRepository.findAssigneesByIdIn(ids).stream()
+                .collect(Collectors.groupingBy(TaskAssigneeView::getTaskId,
+                        Collectors.mapping(TaskAssigneeView::getAssignee, Collectors.toList())))
+                : Map.of();
+        Map<Long, Long> commentsCounts = selection.includes("comments")
+                ? commentService.countCommentsByTaskIds(ids)
+                : Map.of();
+        Map<Long, List<Comment>> latestComments = selection.includes("comments")
+                ? commentService.findLatestCommentsByTaskIds(ids, TaskDtoConverter.LATEST_COMMENTS_SIZE)
+                : Map.of();
+
+        return rows.stream()
+                .map(row -> {
+                    Long id = row.get("id", Long.class);
+                    return TaskDto.builder()
+                            .id(id)
+                            .title(selection.hasField("title") ? row.get("title", String.class) : null)
+                            .description(selection.hasField("description") ? row.get("description", String.class) : null)
+                            .status(selection.hasField("status") ? row.get("status", TaskStatus.class) : null)
+                            .priority(selection.hasField("priority") ? row.get("priority", TaskPriority.class) : null)
+                            .author(selection.hasField("author") ? row.get("author", User.class) : null)
+                            .assignees(selection.includes("assignees") ? assignees.getOrDefault(id, new ArrayList<>()) : null)
+                            .comments(selection.includes("comments") ? latestComments.getOrDefault(id, new ArrayList<>()) : null)
+                            .commentsCount(selection.includes("comments") ? commentsCounts.getOrDefault(id, 0L) : null)
+                            .build();
+                }).toList();
     }
 
     private void validateTaskDto(TaskDto taskDto) {
@@ -196,29 +674,134 @@ public class TaskServiceImpl implements TaskService {
         }
     }
 
+    // users are compared by id, the current user comes from the principal and not from the database
     private void validateAuthorOrAssignee(Task task, User authorOrAssignee) {
-        if (!task.getAuthor().equals(authorOrAssignee) && !task.getAssignees().contains(authorOrAssignee)) {
+        if (!task.getAuthor().getId().equals(authorOrAssignee.getId())
+                && task.getAssignees().stream().noneMatch(assignee -> assignee.getId().equals(authorOrAssignee.getId()))) {
             throw new IllegalArgumentException("Only the author can update the task");
         }
     }
 
     private void validateAuthor(Task task, User user) {
-        if (!task.getAuthor().equals(user)) {
+        if (!task.getAuthor().getId().equals(user.getId())) {
             throw new IllegalArgumentException("Only the author can update the task");
         }
     }
 
-    private List<User> getAssigneesFromDto(TaskDto taskDto) {
-        return taskDto.getAssignees().stream()
-                .map(assignee -> {
-                    if (assignee.getId() != null) {
-                        return userService.findById(assignee.getId());
-                    }
-                    if (assignee.getEmail() != null) {
-                        return userService.findByEmail(assignee.getEmail());
-                    }
+    // the version is checked again by the update itself, a change committed after the load fails with a conflict
+    private void validateVersion(Task task, Long expectedVersion) {
+        validateVersion(task.getId(), task.getVersion(), expectedVersion);
+    }
+
+    private void validateVersion(Long id, Long version, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(version))
+            throw new TaskVersionMismatchException("task with id=" + id + " has version=" + version
+                    + ", expected version=" + expectedVersion);
+    }
+
+    private Set<User> getUsers(Collection<Long> ids, Collection<String> emails) {
+        if (ids.isEmpty() && emails.isEmpty())
+            throw new IllegalArgumentException("No assignee ids or emails given");
+        return new LinkedHashSet<>(userService.findAllByIdsAndEmails(ids, emails));
+    }
+
+    /**
+     * Loads the task through the second-level cache and checks the user and the If-Match version.
+     * The change is written by Hibernate: only the changed columns are updated (see {@link Task}), the version
+     * is incremented and checked by the UPDATE, so a change committed after the load fails with a conflict.
+     * Unlike a bulk statement, this leaves the cached entries of the other tasks in place.
+     */
+    private Task getTaskForUpdate(Long id, User user, Long expectedVersion, boolean assigneeAllowed) {
+        Task task = entityManager.find(Task.class, id);
+        if (task == null)
+            throw new EntityNotFoundException("task with id=" + id + " not found!");
+        if (assigneeAllowed)
+            validateAuthorOrAssignee(task, user);
+        else
+            validateAuthor(task, user);
+        validateVersion(task, expectedVersion);
+        return task;
+    }
+
+    // flushed, so that the returned version is the one written
+    private Long flushVersion(Task task) {
+        entityManager.flush();
+        return task.getVersion();
+    }
+
+    // the current user is built from the principal, it is attached as a reference instead of being loaded
+    private User getUserReference(User user) {
+        return user != null && user.getId() != null ? userService.getReferenceById(user.getId()) : user;
+    }
+
+    // the assignees of all the tasks are loaded with one query by id and one by email
+    private List<Set<User>> getAssigneesFromDtos(List<TaskDto> taskDtos) {
+        Set<Long> ids = new LinkedHashSet<>();
+        Set<String> emails = new LinkedHashSet<>();
+        for (TaskDto taskDto : taskDtos) {
+            for (User assignee : taskDto.getAssignees()) {
+                if (assignee.getId() != null)
+                    ids.add(assignee.getId());
+                else if (assignee.getEmail() != null)
+                    emails.add(assignee.getEmail());
+                else
                     throw new IllegalArgumentException("Task contains an invalid assignee! The assignee must have at least an id or email.");
-                }).distinct().collect(Collectors.toList());
+            }
+        }
+
+        List<User> users = ids.isEmpty() && emails.isEmpty() ? List.of() : userService.findAllByIdsAndEmails(ids, emails);
+        Map<Long, User> usersById = users.stream()
+                .collect(Collectors.toMap(User::getId, Function.identity(), (first, second) -> first));
+        Map<String, User> usersByEmail = users.stream()
+                .collect(Collectors.toMap(User::getEmail, Function.identity(), (first, second) -> first));
+
+        return taskDtos.stream()
+                .map(taskDto -> {
+                    // deduplicated by primary key, a user given both by id and by email is assigned once
+                    Map<Long, User> assignees = new LinkedHashMap<>();
+                    for (User assignee : taskDto.getAssignees()) {
+                        User user = assignee.getId() != null
+                                ? usersById.get(assignee.getId())
+                                : usersByEmail.get(assignee.getEmail());
+                        assignees.putIfAbsent(user.getId(), user);
+                    }
+                    return (Set<User>) new LinkedHashSet<>(assignees.values());
+                }).toList();
+    }
+
+    private TaskExportRow convertEntityToExportRow(Task task) {
+        return TaskExportRow.builder()
+                .id(task.getId())
+                .title(task.getTitle())
+                .description(task.getDescription())
+                .status(task.getStatus() != null ? task.getStatus().name() : null)
+                .priority(task.getPriority() != null ? task.getPriority().name() : null)
+                .authorId(task.getAuthor() != null ? task.getAuthor().getId() : null)
+                .authorEmail(task.getAuthor() != null ? task.getAuthor().getEmail() : null)
+                .build();
+    }
+
+    private String convertExportRowToCsv(TaskExportRow row) {
+        return Stream.of(row.getId(), row.getTitle(), row.getDescription(), row.getStatus(),
+                        row.getPriority(), row.getAuthorId(), row.getAuthorEmail())
+                .map(value -> escapeCsv(value != null ? value.toString() : ""))
+                .collect(Collectors.joining(","));
+    }
+
+    private String escapeCsv(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r"))
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        return value;
+    }
+
+    private <T> T getTaskViewById(Long id, Class<T> type) {
+        return taskRepository.findProjectedById(id, type)
+                .orElseThrow(() -> new EntityNotFoundException("task with id=" + id + " not found!"));
+    }
+
+    private void validateTaskExists(Long id) {
+        if (!taskRepository.existsById(id))
+            throw new EntityNotFoundException("task with id=" + id + " not found!");
     }
 
     private Task getTaskById(Long id) {
@@ -1,7 +1,10 @@
 package com.example.taskmanagementsystem.services.impl;
 
 import com.example.taskmanagementsystem.models.User;
+import com.example.taskmanagementsystem.repositories.TaskRepository;
 import com.example.taskmanagementsystem.repositories.UserRepository;
+import com.example.taskmanagementsystem.security.PrincipalCache;
+import com.example.taskmanagementsystem.security.TokenVersionTable;
 import com.example.taskmanagementsystem.services.UserService;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,9 +12,15 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.context.annotation.Primary;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Primary
@@ -20,9 +29,18 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TaskRepository taskRepository;
+
     @Autowired @Lazy
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TokenVersionTable tokenVersionTable;
+
     @Override
     public List<User> findAllUsers() {
         return userRepository.findAll();
@@ -40,12 +58,41 @@ public class UserServiceImpl implements UserService {
                 () -> new EntityNotFoundException("User with id=" + id + "not found!"));
     }
 
+    @Override
+    public User getReferenceById(Long id) {
+        return userRepository.getReferenceById(id);
+    }
+
+    @Override
+    public List<User> findAllByIdsAndEmails(Collection<Long> ids, Collection<String> emails) {
+        List<User> users = new ArrayList<>();
+        if (!ids.isEmpty())
+            users.addAll(userRepository.findAllById(ids));
+        if (!emails.isEmpty())
+            users.addAll(userRepository.findAllByEmailIn(emails));
+
+        Set<Long> missingIds = new LinkedHashSet<>(ids);
+        Set<String> missingEmails = new LinkedHashSet<>(emails);
+        users.forEach(user -> {
+            missingIds.remove(user.getId());
+            missingEmails.remove(user.getEmail());
+        });
+        if (!missingIds.isEmpty() || !missingEmails.isEmpty())
+            throw new EntityNotFoundException("Users with ids=" + missingIds + " and emails=" + missingEmails + " not found!");
+        return users;
+    }
+
     @Override
     public User findByEmailAndPassword(String email, String password) {
         Optional<User> user = userRepository.findByEmail(email);
 
         if (user.isPresent()){
             if (passwordEncoder.matches(password, user.get().getPassword())){
+                // a hash made with a lower strength than the configured one is replaced on a successful login
+                if (passwordEncoder.upgradeEncoding(user.get().getPassword())) {
+                    user.get().setPassword(passwordEncoder.encode(password));
+                    userRepository.save(user.get());
+                }
                 return user.get();
             }
         }
@@ -58,18 +105,24 @@ public class UserServiceImpl implements UserService {
         validateName(user.getName());
         validatePassword(user.getName());
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        userRepository.save(user);
+        // sequence ids defer the insert, flush so that a duplicate email fails here
+        userRepository.saveAndFlush(user);
     }
 
     @Override
+    @Transactional
     public User updateUserNameByEmail(String email, String name) {
         validateName(name);
         User user = findByEmail(email);
         user.setName(name);
-        return userRepository.save(user);
+        user = userRepository.save(user);
+        incrementTaskVersions(user);
+        principalCache.evict(email);
+        return user;
     }
 
     @Override
+    @Transactional
     public User updateUserEmailByEmail(String email, String newEmail) {
         validateEmail(newEmail);
 
@@ -80,18 +133,38 @@ public class UserServiceImpl implements UserService {
 
         User user = findByEmail(email);
         user.setEmail(newEmail);
-        return userRepository.save(user);
+        incrementTokenVersion(user);
+        user = userRepository.save(user);
+        incrementTaskVersions(user);
+        principalCache.evict(email);
+        tokenVersionTable.update(user);
+        return user;
     }
 
     @Override
+    @Transactional
     public User updateUserPasswordByEmail(String email, String password) {
         validatePassword(password);
         User user = findByEmail(email);
         user.setPassword(password);
+        incrementTokenVersion(user);
         saveUser(user);
+        principalCache.evict(email);
+        tokenVersionTable.update(user);
         return user;
     }
 
+    // the tasks are updated entity by entity, unlike a bulk update this leaves the cached entries of the other tasks
+    private void incrementTaskVersions(User user) {
+        Instant now = Instant.now();
+        taskRepository.findAllShowingUser(user.getId()).forEach(task -> task.setUpdatedAt(now));
+    }
+
+    private void incrementTokenVersion(User user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        user.setTokenVersionChangedAt(Instant.now());
+    }
+
     private void validateEmail(String email) {
         String emailRegex = "^[a-zA-Z0-9_+&*-]+(?:\\.[a-zA-Z0-9_+&*-]+)*@(?:[a-zA-Z0-9-]+\\.)+[a-zA-Z]{2,7}$";
         if (!email.matches(emailRegex)) {
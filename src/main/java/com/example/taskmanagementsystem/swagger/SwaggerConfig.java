@@ -47,6 +47,10 @@ public class SwaggerConfig {
 
                         .addSchemas("idSchema", new Schema<Map<String, Object>>()
                                 .addProperty("id", new IntegerSchema().format("int64").example(1)))
+                        .addSchemas("updatedSchema", new Schema<Map<String, Object>>()
+                                .addProperty("updated", new IntegerSchema().example(10)))
+                        .addSchemas("deletedSchema", new Schema<Map<String, Object>>()
+                                .addProperty("deleted", new IntegerSchema().example(10)))
                         .addSchemas("nameSchema", new Schema<Map<String, Object>>()
                                 .addProperty("name", new StringSchema().example("example name")))
                         .addSchemas("emailSchema", new Schema<Map<String, Object>>()
@@ -83,6 +87,7 @@ public class SwaggerConfig {
                                         new UserResponse(2L, "Example name 2", "user2@mail.example"),
                                         new UserResponse(3L, "Example name 3", "user3@mail.example")
                                 ),
+                                2L,
                                 List.of(
                                         new CommentResponse(1L, "Example comment text 1",
                                                 new UserResponse(2L, "Example name 2", "user2@mail.example"), LocalDateTime.now()),
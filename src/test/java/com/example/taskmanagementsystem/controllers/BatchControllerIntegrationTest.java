@@ -0,0 +1,238 @@
+package com.example.taskmanagementsystem.controllers;
+
+import com.example.taskmanagementsystem.dto.task.TaskOperation;
+import com.example.taskmanagementsystem.dto.task.TaskOperationType;
+import com.example.taskmanagementsystem.dto.task.TaskPatchRequest;
+import com.example.taskmanagementsystem.models.*;
+import com.example.taskmanagementsystem.repositories.CommentRepository;
+import com.example.taskmanagementsystem.repositories.TaskRepository;
+import com.example.taskmanagementsystem.repositories.UserRepository;
+import com.example.taskmanagementsystem.security.JwtProvider;
+import com.example.taskmanagementsystem.security.PrincipalCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+@Transactional
+class BatchControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtProvider jwtProvider;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    private String token;
+    private List<User> users;
+    private List<Task> tasks;
+    private Comment comment;
+
+    @BeforeEach
+    void setUp() {
+        // the test data is rolled back, principals cached by previous tests point to removed users
+        principalCache.evictAll();
+        String password = passwordEncoder.encode("Password");
+        users = userRepository.saveAll(List.of(
+                User.builder().name("maksim1").email("maksim1@mail.test").password(password).build(),
+                User.builder().name("maksim2").email("maksim2@mail.test").password(password).build(),
+                User.builder().name("maksim3").email("maksim3@mail.test").password(password).build()
+        ));
+        token = jwtProvider.generateToken(users.get(0));
+        tasks = taskRepository.saveAll(List.of(
+                Task.builder()
+                        .title("TestTask1")
+                        .description("task 1")
+                        .priority(TaskPriority.MEDIUM)
+                        .status(TaskStatus.IN_PROGRESS)
+                        .author(users.get(0))
+                        .assignees(new LinkedHashSet<>(List.of(users.get(1))))
+                        .comments(new ArrayList<>())
+                        .build(),
+                Task.builder()
+                        .title("TestTask2")
+                        .description("task 2")
+                        .priority(TaskPriority.LOW)
+                        .status(TaskStatus.COMPLETED)
+                        .author(users.get(1))
+                        .assignees(new LinkedHashSet<>())
+                        .comments(new ArrayList<>())
+                        .build()
+        ));
+        comment = commentRepository.save(Comment.builder()
+                .task(tasks.get(0))
+                .dateTime(LocalDateTime.now())
+                .commentator(users.get(0))
+                .text("Comment 1")
+                .build());
+    }
+
+    @Test
+    void executeOperations_WhenAllSucceed_ShouldReturnResultOfEveryOperationInOrder() throws Exception {
+        Long taskId = tasks.get(0).getId();
+        Long version = tasks.get(0).getVersion();
+        List<TaskOperation> operations = List.of(
+                TaskOperation.builder().op(TaskOperationType.PATCH).taskId(taskId).expectedVersion(version)
+                        .patch(TaskPatchRequest.builder().statusValue(Optional.of(3)).build()).build(),
+                TaskOperation.builder().op(TaskOperationType.ADD_ASSIGNEES).taskId(taskId)
+                        .assigneeEmails(List.of(users.get(2).getEmail())).build(),
+                TaskOperation.builder().op(TaskOperationType.REMOVE_ASSIGNEES).taskId(taskId)
+                        .assigneeIds(List.of(users.get(1).getId())).build(),
+                TaskOperation.builder().op(TaskOperationType.ADD_COMMENT).taskId(taskId).commentText("Comment 2").build(),
+                TaskOperation.builder().op(TaskOperationType.REMOVE_COMMENT).taskId(taskId).commentId(comment.getId()).build());
+
+        mockMvc.perform(post("/api/batch")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(operations)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[0].status").value(200))
+                .andExpect(jsonPath("$[0].version").value(version + 1))
+                .andExpect(jsonPath("$[1].status").value(200))
+                .andExpect(jsonPath("$[1].version").value(version + 2))
+                .andExpect(jsonPath("$[2].status").value(200))
+                .andExpect(jsonPath("$[3].status").value(201))
+                .andExpect(jsonPath("$[3].comment-id").isNumber())
+                .andExpect(jsonPath("$[4].status").value(200))
+                .andExpect(jsonPath("$[4].error").doesNotExist());
+
+        Task task = taskRepository.findById(taskId).get();
+        assertEquals(TaskStatus.getByValue(3), task.getStatus());
+        assertEquals(Set.of(users.get(2)), task.getAssignees());
+        assertEquals(List.of("Comment 2"), commentRepository.findAllByTaskId(taskId).stream().map(Comment::getText).toList());
+    }
+
+    @Test
+    void executeOperations_WhenOperationFailsInChunk_ShouldReportRolledBackAndNotExecutedOperations() throws Exception {
+        List<TaskOperation> operations = List.of(
+                TaskOperation.builder().op(TaskOperationType.ADD_COMMENT).taskId(tasks.get(0).getId())
+                        .commentText("Comment 2").build(),
+                TaskOperation.builder().op(TaskOperationType.ADD_COMMENT).taskId(tasks.get(0).getId())
+                        .commentText("Comment 3").build(),
+                TaskOperation.builder().op(TaskOperationType.ADD_COMMENT).taskId(tasks.get(0).getId())
+                        .commentText("Comment 4").build(),
+                TaskOperation.builder().op(TaskOperationType.PATCH).taskId(tasks.get(1).getId())
+                        .patch(TaskPatchRequest.builder().title(Optional.of("Foreign title")).build()).build(),
+                TaskOperation.builder().op(TaskOperationType.DELETE).taskId(tasks.get(0).getId()).build());
+
+        mockMvc.perform(post("/api/batch")
+                        .header("Authorization", "Bearer " + token)
+                        .param("chunk-size", "2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(operations)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[1].status").value(201))
+                .andExpect(jsonPath("$[2].status").value(424))
+                .andExpect(jsonPath("$[2].error").value("Rolled back with operation 3"))
+                .andExpect(jsonPath("$[3].status").value(400))
+                .andExpect(jsonPath("$[4].status").value(424))
+                .andExpect(jsonPath("$[4].error").value("Not executed after operation 3"));
+
+        assertTrue(taskRepository.existsById(tasks.get(0).getId()));
+    }
+
+    @Test
+    void executeOperations_WhenExpectedVersionIsStale_ShouldReturnPreconditionFailedResult() throws Exception {
+        List<TaskOperation> operations = List.of(
+                TaskOperation.builder().op(TaskOperationType.PATCH).taskId(tasks.get(0).getId())
+                        .expectedVersion(tasks.get(0).getVersion() + 1)
+                        .patch(TaskPatchRequest.builder().title(Optional.of("New title")).build()).build());
+
+        mockMvc.perform(post("/api/batch")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(operations)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(412));
+    }
+
+    @Test
+    void executeOperations_WhenTaskNotFound_ShouldReturnNotFoundResult() throws Exception {
+        List<TaskOperation> operations = List.of(
+                TaskOperation.builder().op(TaskOperationType.DELETE).taskId(Long.MAX_VALUE).build());
+
+        mockMvc.perform(post("/api/batch")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(operations)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(404));
+    }
+
+    @Test
+    void executeOperations_WhenNoOperations_ShouldReturnBadRequestStatus() throws Exception {
+        mockMvc.perform(post("/api/batch")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void executeOperations_WhenInvalidChunkSize_ShouldReturnBadRequestStatus() throws Exception {
+        List<TaskOperation> operations = List.of(
+                TaskOperation.builder().op(TaskOperationType.DELETE).taskId(tasks.get(0).getId()).build());
+
+        mockMvc.perform(post("/api/batch")
+                        .header("Authorization", "Bearer " + token)
+                        .param("chunk-size", "0")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(operations)))
+                .andExpect(status().isBadRequest());
+
+        assertTrue(taskRepository.existsById(tasks.get(0).getId()));
+    }
+
+    @Test
+    void executeOperations_UnauthorisedRequest_ShouldReturnForbiddenStatus() throws Exception {
+        mockMvc.perform(post("/api/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.taskmanagementsystem.controllers;
 
+import com.example.taskmanagementsystem.dto.task.TaskBulkUpdateRequest;
 import com.example.taskmanagementsystem.dto.task.TaskDtoConverter;
+import com.example.taskmanagementsystem.dto.task.TaskExportFormat;
 import com.example.taskmanagementsystem.dto.task.TaskRequest;
 import com.example.taskmanagementsystem.dto.task.TaskResponse;
 import com.example.taskmanagementsystem.models.*;
@@ -8,7 +10,15 @@ import com.example.taskmanagementsystem.repositories.CommentRepository;
 import com.example.taskmanagementsystem.repositories.TaskRepository;
 import com.example.taskmanagementsystem.repositories.UserRepository;
 import com.example.taskmanagementsystem.security.JwtProvider;
+import com.example.taskmanagementsystem.security.PrincipalCache;
+import com.example.taskmanagementsystem.services.TaskService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,19 +26,33 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import static org.hamcrest.Matchers.hasKey;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -64,6 +88,18 @@ class TaskControllerIntegrationTest {
     @Autowired
     private JwtProvider jwtProvider;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private String token;
     private List<User> users;
     private List<Task> tasks;
@@ -73,8 +109,10 @@ class TaskControllerIntegrationTest {
 
     @BeforeEach
     void setUp() {
+        // the test data is rolled back, principals cached by previous tests point to removed users
+        principalCache.evictAll();
         this.users = createUsers();
-        this.token = jwtProvider.generateToken(users.get(0).getEmail());
+        this.token = jwtProvider.generateToken(users.get(0));
         this.tasks = createTasks();
         comments = createComments();
         for (Comment comment : comments) {
@@ -142,7 +180,7 @@ class TaskControllerIntegrationTest {
                         .priority(TaskPriority.MEDIUM)
                         .status(TaskStatus.IN_PROGRESS)
                         .author(users.get(0))
-                        .assignees(new ArrayList<>(List.of(users.get(1), users.get(2))))
+                        .assignees(new LinkedHashSet<>(List.of(users.get(1), users.get(2))))
                         .comments(new ArrayList<>())
                         .build(),
                 Task.builder()
@@ -151,7 +189,7 @@ class TaskControllerIntegrationTest {
                         .priority(TaskPriority.LOW)
                         .status(TaskStatus.COMPLETED)
                         .author(users.get(1))
-                        .assignees(new ArrayList<>(List.of(users.get(0), users.get(2))))
+                        .assignees(new LinkedHashSet<>(List.of(users.get(0), users.get(2))))
                         .comments(new ArrayList<>())
                         .build()
         ));
@@ -183,6 +221,50 @@ class TaskControllerIntegrationTest {
 
     }
 
+    @Test
+    void getAllTasks_WhenMoreTasksExist_ShouldRunSameNumberOfStatements() throws Exception {
+        // the principal is cached by the first request, so that only the task queries are counted
+        mockMvc.perform(get("/api/tasks/")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        long statements = countStatementsOfGetAllTasks(tasks.size());
+
+        List<Task> moreTasks = taskRepository.saveAll(IntStream.range(0, 10)
+                .mapToObj(i -> Task.builder()
+                        .title("TestTask" + (i + 3))
+                        .description("task " + (i + 3))
+                        .priority(TaskPriority.HIGH)
+                        .status(TaskStatus.PENDING)
+                        .author(users.get(i % 3))
+                        .assignees(new LinkedHashSet<>(List.of(users.get((i + 1) % 3))))
+                        .comments(new ArrayList<>())
+                        .build())
+                .toList());
+        commentRepository.saveAll(moreTasks.stream()
+                .map(task -> Comment.builder()
+                        .task(task)
+                        .dateTime(LocalDateTime.now())
+                        .commentator(users.get(2))
+                        .text("Comment of " + task.getTitle())
+                        .build())
+                .toList());
+
+        assertEquals(statements, countStatementsOfGetAllTasks(tasks.size() + moreTasks.size()));
+    }
+
+    private long countStatementsOfGetAllTasks(int size) throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        long statements = statistics.getPrepareStatementCount();
+
+        mockMvc.perform(get("/api/tasks/")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(size));
+        return statistics.getPrepareStatementCount() - statements;
+    }
+
     @Test
     void getAllTasks_UnauthorisedRequest_ShouldReturnForbiddenStatus() throws Exception {
         mockMvc.perform(get("/api/tasks/"))
@@ -190,6 +272,284 @@ class TaskControllerIntegrationTest {
 
     }
 
+    @Test
+    void getAllTasks_WithLimit_ShouldReturnFirstPageAndNextCursor() throws Exception {
+        TaskResponse taskResponse = taskDtoConverter.convertDtoToResponse(taskDtoConverter.convertEntityToDto(tasks.get(0)));
+
+        String nextCursor = mockMvc.perform(get("/api/tasks/")
+                        .param("limit", "1")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(TaskController.NEXT_CURSOR))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(content().json(objectMapper.writeValueAsString(List.of(taskResponse))))
+                .andReturn().getResponse().getHeader(TaskController.NEXT_CURSOR);
+
+        TaskResponse nextTaskResponse = taskDtoConverter.convertDtoToResponse(taskDtoConverter.convertEntityToDto(tasks.get(1)));
+
+        mockMvc.perform(get("/api/tasks/")
+                        .param("after", nextCursor)
+                        .param("limit", "1")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(TaskController.NEXT_CURSOR))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(content().json(objectMapper.writeValueAsString(List.of(nextTaskResponse))));
+    }
+
+    @Test
+    void getAllTasks_WithFields_ShouldReturnOnlyRequestedFields() throws Exception {
+        mockMvc.perform(get("/api/tasks/")
+                        .param("fields", "title,status")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(tasks.get(0).getId()))
+                .andExpect(jsonPath("$[0].title").value("TestTask1"))
+                .andExpect(jsonPath("$[0].status.value").value(TaskStatus.IN_PROGRESS.getValue()))
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andExpect(jsonPath("$[0].priority").doesNotExist())
+                .andExpect(jsonPath("$[0].author").doesNotExist())
+                .andExpect(jsonPath("$[0].assignees").doesNotExist())
+                .andExpect(jsonPath("$[0].comments-count").doesNotExist())
+                .andExpect(jsonPath("$[0].comments").doesNotExist());
+    }
+
+    @Test
+    void getAllTasks_WithFieldsAndLimit_ShouldReturnNextCursor() throws Exception {
+        String nextCursor = mockMvc.perform(get("/api/tasks/")
+                        .param("fields", "title")
+                        .param("limit", "1")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("TestTask1"))
+                .andReturn().getResponse().getHeader(TaskController.NEXT_CURSOR);
+
+        mockMvc.perform(get("/api/tasks/")
+                        .param("fields", "title")
+                        .param("after", nextCursor)
+                        .param("limit", "1")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(TaskController.NEXT_CURSOR))
+                .andExpect(jsonPath("$[0].title").value("TestTask2"));
+    }
+
+    @Test
+    void getAllTasks_WithFieldsAndLimit_ShouldKeepThemInNextLink() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(get("/api/tasks/?fields=title&limit=1")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        assertEquals("<http://localhost/api/tasks/?fields=title&after="
+                        + response.getHeader(TaskController.NEXT_CURSOR) + "&limit=1>; rel=\"next\"",
+                response.getHeader(HttpHeaders.LINK));
+    }
+
+    @Test
+    void getAllTasks_WithInvalidField_ShouldReturnBadRequestStatus() throws Exception {
+        mockMvc.perform(get("/api/tasks/")
+                        .param("fields", "title,password")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAllTasks_WithInvalidCursor_ShouldReturnBadRequestStatus() throws Exception {
+        mockMvc.perform(get("/api/tasks/")
+                        .param("after", "not a cursor")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAllTasks_WithInvalidLimit_ShouldReturnBadRequestStatus() throws Exception {
+        mockMvc.perform(get("/api/tasks/")
+                        .param("limit", "0")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchTasks_ByStatusAndAuthor_ShouldReturnMatchingTasks() throws Exception {
+        TaskResponse taskResponse = taskDtoConverter.convertDtoToResponse(taskDtoConverter.convertEntityToDto(tasks.get(1)));
+
+        mockMvc.perform(get("/api/tasks/search")
+                        .param("status-value", String.valueOf(TaskStatus.COMPLETED.getValue()))
+                        .param("author-id", String.valueOf(users.get(1).getId()))
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().string(TaskController.TOTAL_COUNT, "1"))
+                .andExpect(content().json(objectMapper.writeValueAsString(List.of(taskResponse))));
+    }
+
+    @Test
+    void searchTasks_ByAssigneeSortedByPriorityDescending_ShouldReturnSortedTasks() throws Exception {
+        mockMvc.perform(get("/api/tasks/search")
+                        .param("assignee-id", String.valueOf(users.get(2).getId()))
+                        .param("sort", "-priority")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().string(TaskController.TOTAL_COUNT, "2"))
+                .andExpect(jsonPath("$[0].id").value(tasks.get(0).getId()))
+                .andExpect(jsonPath("$[1].id").value(tasks.get(1).getId()));
+    }
+
+    @Test
+    void searchTasks_ByTitlePrefix_ShouldReturnMatchingTasks() throws Exception {
+        mockMvc.perform(get("/api/tasks/search")
+                        .param("title", "TestTask2")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(tasks.get(1).getId()));
+
+        mockMvc.perform(get("/api/tasks/search")
+                        .param("title", "%Task")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void searchTasks_WithFieldsAndInclude_ShouldReturnRequestedFieldsAndAssociations() throws Exception {
+        mockMvc.perform(get("/api/tasks/search")
+                        .param("author-id", String.valueOf(users.get(0).getId()))
+                        .param("fields", "title,author")
+                        .param("include", "assignees")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().string(TaskController.TOTAL_COUNT, "1"))
+                .andExpect(jsonPath("$[0].title").value("TestTask1"))
+                .andExpect(jsonPath("$[0].author.email").value(users.get(0).getEmail()))
+                .andExpect(jsonPath("$[0].assignees.length()").value(2))
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andExpect(jsonPath("$[0].comments").doesNotExist());
+    }
+
+    @Test
+    void searchTasks_WithInvalidSortKey_ShouldReturnBadRequestStatus() throws Exception {
+        mockMvc.perform(get("/api/tasks/search")
+                        .param("sort", "password")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchTasksByText_ShouldReturnTasksMatchingTitleDescriptionOrComments() throws Exception {
+        mockMvc.perform(get("/api/tasks/search/full-text")
+                        .param("query", "task 2")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(tasks.get(1).getId()));
+
+        mockMvc.perform(get("/api/tasks/search/full-text")
+                        .param("query", "comment 6")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(tasks.get(1).getId()));
+    }
+
+    @Test
+    void searchTasksByText_WithBlankQuery_ShouldReturnBadRequestStatus() throws Exception {
+        mockMvc.perform(get("/api/tasks/search/full-text")
+                        .param("query", " ")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportTasks_ShouldStartStreamingWithFormatHeaders() throws Exception {
+        mockMvc.perform(get("/api/tasks/export")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson;charset=UTF-8"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasks.ndjson\""));
+
+        mockMvc.perform(get("/api/tasks/export")
+                        .param("format", "csv")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tasks.csv\""));
+    }
+
+    // the response body is written on an async thread, which does not see the data of the test transaction
+    @Test
+    void exportTasks_AsNdjson_ShouldWriteOneJsonLinePerTask() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        taskService.exportTasks(TaskExportFormat.NDJSON, outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(tasks.size(), lines.length);
+        for (int i = 0; i < tasks.size(); i++) {
+            JsonNode row = objectMapper.readTree(lines[i]);
+            assertEquals(tasks.get(i).getId(), row.get("id").asLong());
+            assertEquals(tasks.get(i).getTitle(), row.get("title").asText());
+            assertEquals(tasks.get(i).getStatus().name(), row.get("status").asText());
+            assertEquals(tasks.get(i).getAuthor().getId(), row.get("author-id").asLong());
+        }
+    }
+
+    @Test
+    void exportTasks_AsCsv_ShouldWriteHeaderAndOneRowPerTask() throws Exception {
+        Task task = tasks.get(0);
+        task.setDescription("multi-line, \"quoted\"\ndescription");
+        taskRepository.save(task);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        taskService.exportTasks(TaskExportFormat.CSV, outputStream);
+
+        assertEquals("id,title,description,status,priority,author-id,author-email\n"
+                        + task.getId() + ",TestTask1,\"multi-line, \"\"quoted\"\"\ndescription\",IN_PROGRESS,MEDIUM,"
+                        + task.getAuthor().getId() + "," + task.getAuthor().getEmail() + "\n"
+                        + tasks.get(1).getId() + ",TestTask2,task 2,COMPLETED,LOW,"
+                        + tasks.get(1).getAuthor().getId() + "," + tasks.get(1).getAuthor().getEmail() + "\n",
+                outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportTasks_ShouldNotPutExportedTasksIntoSecondLevelCache() {
+        // the cache only holds committed rows, so this task is created outside of the test transaction
+        TransactionTemplate newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Task task = newTransaction.execute(status -> taskRepository.save(Task.builder()
+                .title("exported").status(TaskStatus.IN_PROGRESS).priority(TaskPriority.LOW).build()));
+        try {
+            entityManager.getEntityManagerFactory().getCache().evict(Task.class);
+            Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+            long puts = statistics.getDomainDataRegionStatistics(Task.class.getName()).getPutCount();
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            newTransaction.executeWithoutResult(status -> {
+                try {
+                    taskService.exportTasks(TaskExportFormat.NDJSON, outputStream);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            assertTrue(outputStream.toString(StandardCharsets.UTF_8).contains("\"exported\""));
+            assertEquals(puts, statistics.getDomainDataRegionStatistics(Task.class.getName()).getPutCount());
+        } finally {
+            newTransaction.executeWithoutResult(status -> taskRepository.deleteById(task.getId()));
+        }
+    }
+
+    @Test
+    void exportTasks_WithUnknownFormat_ShouldReturnBadRequestStatus() throws Exception {
+        mockMvc.perform(get("/api/tasks/export")
+                        .param("format", "xml")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getTaskById_WhenTaskFound_ShouldTaskResponse() throws Exception {
         TaskResponse taskResponse = taskDtoConverter.convertDtoToResponse(taskDtoConverter.convertEntityToDto(tasks.get(0)));
@@ -202,6 +562,136 @@ class TaskControllerIntegrationTest {
 
     }
 
+    @Test
+    void getTaskById_WhenIfNoneMatchIsCurrent_ShouldReturnNotModifiedStatus() throws Exception {
+        String eTag = mockMvc.perform(get("/api/tasks/{id}", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/tasks/{id}", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getTaskById_WhenFieldsAreSelected_ShouldNotBeValidatedByETagOfFullTask() throws Exception {
+        String eTag = mockMvc.perform(get("/api/tasks/{id}", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String sparseETag = mockMvc.perform(get("/api/tasks/{id}", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .param("fields", "title")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("TestTask1"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue(sparseETag.startsWith("W/"));
+
+        mockMvc.perform(get("/api/tasks/{id}", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .param("fields", "title")
+                        .header(HttpHeaders.IF_NONE_MATCH, sparseETag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/tasks/{id}", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .param("fields", "title")
+                        .param("include", "comments")
+                        .header(HttpHeaders.IF_NONE_MATCH, sparseETag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getTaskById_WhenTaskChangedSinceETag_ShouldReturnOkStatusAndNewETag() throws Exception {
+        String eTag = mockMvc.perform(get("/api/tasks/{id}", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(put("/api/tasks/{id}/title", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .param("title", "New Test Title"))
+                .andExpect(status().isNoContent());
+
+        String newETag = mockMvc.perform(get("/api/tasks/{id}", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("New Test Title"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(eTag, newETag);
+    }
+
+    @Test
+    void getTaskById_WithManyComments_ShouldReturnCommentsCountAndLatestComments() throws Exception {
+        List<Comment> newComments = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            newComments.add(Comment.builder()
+                    .task(tasks.get(0))
+                    .dateTime(LocalDateTime.now().plusMinutes(10 + i))
+                    .commentator(users.get(1))
+                    .text("Comment " + (7 + i))
+                    .build());
+        }
+        commentRepository.saveAll(newComments);
+
+        mockMvc.perform(get("/api/tasks/{id}", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments-count").value(7))
+                .andExpect(jsonPath("$.comments.length()").value(TaskDtoConverter.LATEST_COMMENTS_SIZE))
+                .andExpect(jsonPath("$.comments[0].text").value("Comment 1"))
+                .andExpect(jsonPath("$.comments[4].text").value("Comment 10"));
+
+        mockMvc.perform(get("/api/tasks/{id}", tasks.get(0).getId())
+                        .param("all-comments", "true")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments-count").value(7))
+                .andExpect(jsonPath("$.comments.length()").value(7))
+                .andExpect(jsonPath("$.comments[0].text").value("Comment 3"));
+    }
+
+    @Test
+    void getTaskById_WithInclude_ShouldReturnAllFieldsAndIncludedAssociations() throws Exception {
+        mockMvc.perform(get("/api/tasks/{id}", tasks.get(0).getId())
+                        .param("include", "comments")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("TestTask1"))
+                .andExpect(jsonPath("$.description").value("task 1"))
+                .andExpect(jsonPath("$.priority.value").value(TaskPriority.MEDIUM.getValue()))
+                .andExpect(jsonPath("$.author.id").value(users.get(0).getId()))
+                .andExpect(jsonPath("$.comments-count").value(3))
+                .andExpect(jsonPath("$.comments.length()").value(3))
+                .andExpect(jsonPath("$.assignees").doesNotExist());
+    }
+
+    @Test
+    void getTaskById_WhenDescriptionIsNull_ShouldKeepNullDescriptionInFullResponse() throws Exception {
+        tasks.get(0).setDescription(null);
+        taskRepository.saveAndFlush(tasks.get(0));
+
+        mockMvc.perform(get("/api/tasks/{id}", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasKey("description")))
+                .andExpect(jsonPath("$.description").isEmpty());
+    }
+
+    @Test
+    void getTaskById_WithFieldsWhenTaskNotFound_ShouldReturnNotFoundStatus() throws Exception {
+        mockMvc.perform(get("/api/tasks/{id}", Long.MAX_VALUE)
+                        .param("fields", "title")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void getTaskById_WhenTaskNotFound_ShouldReturnNotFoundStatus() throws Exception {
         long id = Long.MAX_VALUE;
@@ -467,6 +957,20 @@ class TaskControllerIntegrationTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void addTask_WhenAssigneesIdAndEmailContainNonExistentUsers_ShouldReturnNotFoundStatusAndCreateNothing() throws Exception {
+        long tasksCount = taskRepository.count();
+        taskRequest.setAssigneesId(List.of(users.get(1).getId(), Long.MAX_VALUE));
+        taskRequest.setAssigneesEmail(List.of(users.get(2).getEmail(), "nonexistent@mail.test"));
+
+        mockMvc.perform(post("/api/tasks/")
+                        .header("Authorization", "Bearer " + token).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(taskRequest)))
+                .andExpect(status().isNotFound());
+
+        assertEquals(tasksCount, taskRepository.count());
+    }
+
     @Test
     void addTask_WhenTaskRequestWithoutAssignees_ShouldReturnCreatedStatusAndTaskResponse() throws Exception {
         taskRequest.setAssigneesEmail(null);
@@ -492,6 +996,257 @@ class TaskControllerIntegrationTest {
         assertEquals(0, createdTask.get().getAssignees().size());
     }
 
+    @Test
+    void addTasks_WhenTaskRequestsWithValidData_ShouldReturnCreatedStatusAndTaskResponses() throws Exception {
+        List<TaskRequest> taskRequests = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            taskRequests.add(TaskRequest.builder()
+                    .title("BatchTask" + i)
+                    .description("batch task " + i)
+                    .assigneesId(List.of(users.get(1).getId()))
+                    .assigneesEmail(List.of(users.get(2).getEmail()))
+                    .build());
+        }
+
+        String responseContent = mockMvc.perform(post("/api/tasks/batch")
+                        .header("Authorization", "Bearer " + token).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(taskRequests)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(taskRequests.size()))
+                .andReturn().getResponse().getContentAsString();
+
+        TaskResponse[] responses = objectMapper.readValue(responseContent, TaskResponse[].class);
+        assertEquals(tasks.size() + taskRequests.size(), taskRepository.count());
+        for (int i = 0; i < responses.length; i++) {
+            Task createdTask = taskRepository.findById(responses[i].getId()).orElseThrow();
+            assertEquals("BatchTask" + i, createdTask.getTitle());
+            assertEquals(TaskStatus.PENDING, createdTask.getStatus());
+            assertEquals(users.get(0), createdTask.getAuthor());
+            assertEquals(Set.of(users.get(1), users.get(2)), Set.copyOf(createdTask.getAssignees()));
+        }
+    }
+
+    @Test
+    void addTasks_ShouldInsertTasksAndAssigneesInJdbcBatches() throws Exception {
+        List<TaskRequest> taskRequests = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            taskRequests.add(TaskRequest.builder()
+                    .title("BatchTask" + i)
+                    .description("batch task " + i)
+                    .assigneesId(List.of(users.get(1).getId()))
+                    .assigneesEmail(List.of(users.get(2).getEmail()))
+                    .build());
+        }
+        // the principal is cached by the first request, so that only the statements of the import are counted
+        mockMvc.perform(get("/api/tasks/" + tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        entityManager.flush();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        long statements = statistics.getPrepareStatementCount();
+        AtomicInteger batches = new AtomicInteger();
+        entityManager.unwrap(Session.class).addEventListeners(new BaseSessionEventListener() {
+            @Override
+            public void jdbcExecuteBatchStart() {
+                batches.incrementAndGet();
+            }
+        });
+
+        mockMvc.perform(post("/api/tasks/batch")
+                        .header("Authorization", "Bearer " + token).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(taskRequests)))
+                .andExpect(status().isCreated());
+        entityManager.flush();
+
+        // 120 tasks in 3 batches of at most 50 rows and their 240 assignee rows in 5
+        assertEquals(8, batches.get());
+        // the assignee lookups by ids and by emails, 2 tasks_seq calls and one prepared insert per table
+        // that is reused by all of its batches; the comments of the new tasks are not queried
+        assertEquals(6, statistics.getPrepareStatementCount() - statements);
+    }
+
+    @Test
+    void addTasks_WhenOneTaskRequestWithoutTitle_ShouldReturnBadRequestStatusAndCreateNothing() throws Exception {
+        TaskRequest invalidRequest = createTaskRequest();
+        invalidRequest.setTitle(null);
+
+        mockMvc.perform(post("/api/tasks/batch")
+                        .header("Authorization", "Bearer " + token).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(taskRequest, invalidRequest))))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(tasks.size(), taskRepository.count());
+    }
+
+    @Test
+    void addTasks_WhenAssigneeNotFound_ShouldReturnNotFoundStatusAndCreateNothing() throws Exception {
+        TaskRequest invalidRequest = createTaskRequest();
+        invalidRequest.setAssigneesId(List.of(Long.MAX_VALUE));
+
+        mockMvc.perform(post("/api/tasks/batch")
+                        .header("Authorization", "Bearer " + token).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(taskRequest, invalidRequest))))
+                .andExpect(status().isNotFound());
+
+        assertEquals(tasks.size(), taskRepository.count());
+    }
+
+    @Test
+    void addTasks_WhenNoTaskRequests_ShouldReturnBadRequestStatus() throws Exception {
+        mockMvc.perform(post("/api/tasks/batch")
+                        .header("Authorization", "Bearer " + token).contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void updateTasks_WithNewStatus_ShouldUpdateTasksOfAuthorAndAssignee() throws Exception {
+        TaskBulkUpdateRequest request = TaskBulkUpdateRequest.builder()
+                .assigneeId(users.get(2).getId())
+                .newStatusValue(TaskStatus.PENDING.getValue())
+                .build();
+
+        mockMvc.perform(put("/api/tasks/bulk")
+                        .header("Authorization", "Bearer " + token).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(2));
+
+        assertEquals(TaskStatus.PENDING, taskRepository.findById(tasks.get(0).getId()).orElseThrow().getStatus());
+        assertEquals(TaskStatus.PENDING, taskRepository.findById(tasks.get(1).getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void updateTasks_WithNewStatus_ShouldUpdateTasksWithoutStatus() throws Exception {
+        tasks.get(0).setStatus(null);
+        taskRepository.saveAndFlush(tasks.get(0));
+        TaskBulkUpdateRequest request = TaskBulkUpdateRequest.builder()
+                .authorId(users.get(0).getId())
+                .newStatusValue(TaskStatus.PENDING.getValue())
+                .build();
+
+        mockMvc.perform(put("/api/tasks/bulk")
+                        .header("Authorization", "Bearer " + token).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1));
+
+        assertEquals(TaskStatus.PENDING, taskRepository.findById(tasks.get(0).getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void updateTasks_WithNewAssignee_ShouldIncrementVersionOfReassignedTasks() throws Exception {
+        Long version = taskRepository.findVersionById(tasks.get(0).getId()).orElseThrow();
+        TaskBulkUpdateRequest request = TaskBulkUpdateRequest.builder()
+                .assigneeId(users.get(2).getId())
+                .newAssigneeId(users.get(1).getId())
+                .build();
+
+        mockMvc.perform(put("/api/tasks/bulk")
+                        .header("Authorization", "Bearer " + token).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        assertEquals(version + 1, taskRepository.findVersionById(tasks.get(0).getId()).orElseThrow());
+    }
+
+    @Test
+    void updateTasks_WithNewPriority_ShouldUpdateOnlyTasksOfAuthor() throws Exception {
+        TaskBulkUpdateRequest request = TaskBulkUpdateRequest.builder()
+                .newPriorityValue(TaskPriority.HIGH.getValue())
+                .build();
+
+        mockMvc.perform(put("/api/tasks/bulk")
+                        .header("Authorization", "Bearer " + token).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1));
+
+        assertEquals(TaskPriority.HIGH, taskRepository.findById(tasks.get(0).getId()).orElseThrow().getPriority());
+        assertEquals(TaskPriority.LOW, taskRepository.findById(tasks.get(1).getId()).orElseThrow().getPriority());
+    }
+
+    @Test
+    void updateTasks_WithNewAssignee_ShouldReplaceAssigneeInTasksOfAuthor() throws Exception {
+        TaskBulkUpdateRequest request = TaskBulkUpdateRequest.builder()
+                .assigneeId(users.get(2).getId())
+                .newAssigneeId(users.get(1).getId())
+                .build();
+
+        mockMvc.perform(put("/api/tasks/bulk")
+                        .header("Authorization", "Bearer " + token).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1));
+
+        assertEquals(Set.of(users.get(1)), taskRepository.findById(tasks.get(0).getId()).orElseThrow().getAssignees());
+        assertEquals(Set.of(users.get(0), users.get(2)),
+                Set.copyOf(taskRepository.findById(tasks.get(1).getId()).orElseThrow().getAssignees()));
+    }
+
+    @Test
+    void updateTasks_WithNewAssignee_ShouldEvictCachedAssignees() throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(2, taskRepository.findById(tasks.get(0).getId()).orElseThrow().getAssignees().size());
+        entityManager.clear();
+
+        TaskBulkUpdateRequest request = TaskBulkUpdateRequest.builder()
+                .assigneeId(users.get(2).getId())
+                .newAssigneeId(users.get(1).getId())
+                .build();
+
+        mockMvc.perform(put("/api/tasks/bulk")
+                        .header("Authorization", "Bearer " + token).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+        entityManager.clear();
+
+        mockMvc.perform(get("/api/tasks/{id}", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.assignees.length()").value(1))
+                .andExpect(jsonPath("$.assignees[0].id").value(users.get(1).getId()));
+    }
+
+    @Test
+    void updateTasks_WithoutExactlyOneChange_ShouldReturnBadRequestStatus() throws Exception {
+        mockMvc.perform(put("/api/tasks/bulk")
+                        .header("Authorization", "Bearer " + token).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TaskBulkUpdateRequest.builder().build())))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(put("/api/tasks/bulk")
+                        .header("Authorization", "Bearer " + token).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TaskBulkUpdateRequest.builder()
+                                .newStatusValue(1).newPriorityValue(1).build())))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void updateTasks_WithOutOfRangeValue_ShouldReturnBadRequestStatus() throws Exception {
+        mockMvc.perform(put("/api/tasks/bulk")
+                        .header("Authorization", "Bearer " + token).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TaskBulkUpdateRequest.builder()
+                                .newStatusValue(4).build())))
+                .andExpect(status().isBadRequest())
+                .andExpect(result -> assertInstanceOf(MethodArgumentNotValidException.class, result.getResolvedException()));
+    }
+
+    @Test
+    void updateTasks_WhenNewAssigneeNotFound_ShouldReturnNotFoundStatus() throws Exception {
+        TaskBulkUpdateRequest request = TaskBulkUpdateRequest.builder()
+                .assigneeId(users.get(2).getId())
+                .newAssigneeId(Long.MAX_VALUE)
+                .build();
+
+        mockMvc.perform(put("/api/tasks/bulk")
+                        .header("Authorization", "Bearer " + token).contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void deleteTask_ShouldReturnOkStatus () throws Exception {
         mockMvc.perform(delete("/api/tasks/{id}", tasks.get(0).getId())
@@ -521,4 +1276,60 @@ class TaskControllerIntegrationTest {
                 .header("Authorization", "Bearer " + token).contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    void deleteTask_ShouldDeleteCommentsOfTask() throws Exception {
+        mockMvc.perform(delete("/api/tasks/{id}", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        List<Comment> remainingComments = commentRepository.findAll();
+        assertEquals(3, remainingComments.size());
+        assertTrue(remainingComments.stream().allMatch(comment -> comment.getTask().getId().equals(tasks.get(1).getId())));
+    }
+
+    @Test
+    void deleteTasks_ShouldDeleteTasksWithCommentsAndAssignees() throws Exception {
+        Task task = taskRepository.save(Task.builder()
+                .title("TestTask3")
+                .description("task 3")
+                .priority(TaskPriority.HIGH)
+                .status(TaskStatus.PENDING)
+                .author(users.get(0))
+                .assignees(new LinkedHashSet<>(List.of(users.get(1))))
+                .comments(new ArrayList<>())
+                .build());
+
+        mockMvc.perform(delete("/api/tasks/")
+                        .param("ids", tasks.get(0).getId() + "," + task.getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(2));
+
+        assertEquals(List.of(tasks.get(1).getId()), taskRepository.findAll().stream().map(Task::getId).toList());
+        assertEquals(3, commentRepository.count());
+        assertEquals(List.of(users.get(0), users.get(2)),
+                taskRepository.findAssigneesById(tasks.get(1).getId()));
+    }
+
+    @Test
+    void deleteTasks_WhenOneTaskOfAnotherUser_ShouldReturnBadRequestStatusAndDeleteNothing() throws Exception {
+        mockMvc.perform(delete("/api/tasks/")
+                        .param("ids", tasks.get(0).getId() + "," + tasks.get(1).getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(tasks.size(), taskRepository.count());
+        assertEquals(comments.size(), commentRepository.count());
+    }
+
+    @Test
+    void deleteTasks_WhenOneTaskNotFound_ShouldReturnNotFoundStatus() throws Exception {
+        mockMvc.perform(delete("/api/tasks/")
+                        .param("ids", tasks.get(0).getId() + "," + Long.MAX_VALUE)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
+
+        assertEquals(tasks.size(), taskRepository.count());
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.taskmanagementsystem.controllers;
+
+import com.example.taskmanagementsystem.TaskManagementSystemApplication;
+import com.example.taskmanagementsystem.dto.task.TaskDto;
+import com.example.taskmanagementsystem.models.TaskPriority;
+import com.example.taskmanagementsystem.models.TaskStatus;
+import com.example.taskmanagementsystem.models.User;
+import com.example.taskmanagementsystem.security.JwtProvider;
+import com.example.taskmanagementsystem.services.TaskService;
+import com.example.taskmanagementsystem.services.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Throughput of the task endpoints served by platform and by virtual request threads.
+ * The application is started for every mode on a throwaway in-memory H2 database, never on the PostgreSQL
+ * of application.properties whose schema would be recreated, with a small Tomcat pool and a larger Hikari pool,
+ * so with platform threads the Tomcat pool is the limit and with virtual threads the Hikari pool is.
+ * The virtual mode needs Java 21: build with {@code -Pjava21} and run from the test classpath,
+ * e.g. {@code mvn -Pjava21 test-compile exec:exec
+ * -Dbenchmark=com.example.taskmanagementsystem.controllers.TaskEndpointsThreadingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(200)
+@Fork(1)
+public class TaskEndpointsThreadingBenchmark {
+
+    private static final int TASKS = 500;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    @Param({"20"})
+    public int tomcatThreads;
+
+    @Param({"50"})
+    public int hikariPoolSize;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private String baseUrl;
+    private String token;
+    private List<Long> taskIds;
+
+    @Setup(Level.Trial)
+    public void startApplication() throws IOException, InterruptedException {
+        context = new SpringApplicationBuilder(TaskManagementSystemApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--server.tomcat.threads.max=" + tomcatThreads,
+                "--spring.datasource.hikari.maximum-pool-size=" + hikariPoolSize,
+                "--logging.level.root=WARN");
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/tasks/";
+
+        UserService userService = context.getBean(UserService.class);
+        userService.saveUser(User.builder().email("benchmark@mail.test").password("benchmark").name("benchmark").build());
+        User user = userService.findByEmail("benchmark@mail.test");
+        token = context.getBean(JwtProvider.class).generateToken(user);
+
+        TaskService taskService = context.getBean(TaskService.class);
+        taskIds = taskService.createTasks(IntStream.range(0, TASKS)
+                        .mapToObj(i -> TaskDto.builder()
+                                .title("Task " + i)
+                                .description("benchmark task " + i)
+                                .status(TaskStatus.IN_PROGRESS)
+                                .priority(TaskPriority.MEDIUM)
+                                .author(user)
+                                .assignees(List.of())
+                                .build())
+                        .toList())
+                .stream()
+                .map(TaskDto::getId)
+                .toList();
+
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        if (get(baseUrl + taskIds.get(0)) != 200)
+            throw new IllegalStateException("The benchmark user is not authorised on " + baseUrl);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getTasks() throws IOException, InterruptedException {
+        return get(baseUrl + "?limit=20");
+    }
+
+    @Benchmark
+    public int getTaskById() throws IOException, InterruptedException {
+        return get(baseUrl + taskIds.get(ThreadLocalRandom.current().nextInt(taskIds.size())));
+    }
+
+    private int get(String url) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TaskEndpointsThreadingBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
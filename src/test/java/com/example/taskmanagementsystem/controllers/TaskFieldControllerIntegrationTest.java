@@ -3,13 +3,23 @@ package com.example.taskmanagementsystem.controllers;
 import com.example.taskmanagementsystem.dto.task.TaskProperty;
 import com.example.taskmanagementsystem.dto.user.UserResponse;
 import com.example.taskmanagementsystem.dto.task.TaskDtoConverter;
+import com.example.taskmanagementsystem.dto.task.TaskPatchRequest;
+import com.example.taskmanagementsystem.dto.comment.CommentDto;
+import com.example.taskmanagementsystem.dto.comment.CommentResponse;
 import com.example.taskmanagementsystem.dto.task.TaskResponse;
 import com.example.taskmanagementsystem.models.*;
 import com.example.taskmanagementsystem.repositories.CommentRepository;
 import com.example.taskmanagementsystem.repositories.TaskRepository;
 import com.example.taskmanagementsystem.repositories.UserRepository;
 import com.example.taskmanagementsystem.security.JwtProvider;
+import com.example.taskmanagementsystem.security.PrincipalCache;
+import com.example.taskmanagementsystem.services.TaskService;
+import com.example.taskmanagementsystem.services.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -17,14 +27,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.BiConsumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -62,6 +79,21 @@ class TaskFieldControllerIntegrationTest {
     @Autowired
     private JwtProvider jwtProvider;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private String token;
     private List<User> users;
     private List<Task> tasks;
@@ -70,8 +102,10 @@ class TaskFieldControllerIntegrationTest {
 
     @BeforeEach
     void setUp() {
+        // the test data is rolled back, principals cached by previous tests point to removed users
+        principalCache.evictAll();
         this.users = createUsers();
-        this.token = jwtProvider.generateToken(users.get(0).getEmail());
+        this.token = jwtProvider.generateToken(users.get(0));
         this.tasks = createTasks();
         comments = createComments();
         for (Comment comment : comments) {
@@ -92,40 +126,42 @@ class TaskFieldControllerIntegrationTest {
     }
 
     private List<Comment> createComments() {
+        // the precision of the database, so that the comments reloaded after an update compare equal
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
         return commentRepository.saveAll(List.of(
                 Comment.builder()
                         .task(tasks.get(0))
-                        .dateTime(LocalDateTime.now().plusMinutes(5))
+                        .dateTime(now.plusMinutes(5))
                         .commentator(users.get(0))
                         .text("Comment 1")
                         .build(),
                 Comment.builder()
                         .task(tasks.get(0))
-                        .dateTime(LocalDateTime.now().plusMinutes(2))
+                        .dateTime(now.plusMinutes(2))
                         .commentator(users.get(1))
                         .text("Comment 2")
                         .build(),
                 Comment.builder()
                         .task(tasks.get(0))
-                        .dateTime(LocalDateTime.now().plusMinutes(1))
+                        .dateTime(now.plusMinutes(1))
                         .commentator(users.get(2))
                         .text("Comment 3")
                         .build(),
                 Comment.builder()
                         .task(tasks.get(1))
-                        .dateTime(LocalDateTime.now().plusMinutes(3))
+                        .dateTime(now.plusMinutes(3))
                         .commentator(users.get(2))
                         .text("Comment 4")
                         .build(),
                 Comment.builder()
                         .task(tasks.get(1))
-                        .dateTime(LocalDateTime.now().plusMinutes(6))
+                        .dateTime(now.plusMinutes(6))
                         .commentator(users.get(1))
                         .text("Comment 5")
                         .build(),
                 Comment.builder()
                         .task(tasks.get(1))
-                        .dateTime(LocalDateTime.now().plusMinutes(4))
+                        .dateTime(now.plusMinutes(4))
                         .commentator(users.get(0))
                         .text("Comment 6")
                         .build()
@@ -140,7 +176,7 @@ class TaskFieldControllerIntegrationTest {
                         .priority(TaskPriority.MEDIUM)
                         .status(TaskStatus.IN_PROGRESS)
                         .author(users.get(0))
-                        .assignees(new ArrayList<>(List.of(users.get(1), users.get(2))))
+                        .assignees(new LinkedHashSet<>(List.of(users.get(1), users.get(2))))
                         .comments(new ArrayList<>())
                         .build(),
                 Task.builder()
@@ -149,7 +185,7 @@ class TaskFieldControllerIntegrationTest {
                         .priority(TaskPriority.LOW)
                         .status(TaskStatus.COMPLETED)
                         .author(users.get(1))
-                        .assignees(new ArrayList<>(List.of(users.get(2))))
+                        .assignees(new LinkedHashSet<>(List.of(users.get(2))))
                         .comments(new ArrayList<>())
                         .build()
         ));
@@ -160,6 +196,44 @@ class TaskFieldControllerIntegrationTest {
                 taskDtoConverter.convertEntityToDto(tasks.get(0)));
     }
 
+    /**
+     * Commits two users and two tasks of the first one, caches both tasks and runs the write on the first task
+     * in its own transaction. The second task must still be served from the second-level cache afterwards,
+     * which a bulk statement on the tasks table would have prevented by evicting the whole region.
+     */
+    private void assertWriteKeepsOtherTaskCached(BiConsumer<Task, List<User>> write) {
+        // the cache only holds committed rows, so the data is committed outside of the test transaction
+        TransactionTemplate newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        List<User> cachedUsers = newTransaction.execute(status -> userRepository.saveAll(List.of(
+                User.builder().name("cached1").email("cached1@mail.test").password("Password").build(),
+                User.builder().name("cached2").email("cached2@mail.test").password("Password").build())));
+        List<Task> cachedTasks = newTransaction.execute(status -> taskRepository.saveAll(List.of(
+                Task.builder().title("CachedTask1").status(TaskStatus.PENDING).priority(TaskPriority.LOW)
+                        .author(cachedUsers.get(0)).assignees(new LinkedHashSet<>()).comments(new ArrayList<>()).build(),
+                Task.builder().title("CachedTask2").status(TaskStatus.PENDING).priority(TaskPriority.LOW)
+                        .author(cachedUsers.get(0)).assignees(new LinkedHashSet<>()).comments(new ArrayList<>()).build())));
+        try {
+            Cache cache = entityManager.getEntityManagerFactory().getCache();
+            cache.evict(Task.class);
+            newTransaction.executeWithoutResult(status ->
+                    cachedTasks.forEach(task -> entityManager.find(Task.class, task.getId())));
+            assertTrue(cache.contains(Task.class, cachedTasks.get(1).getId()));
+
+            newTransaction.executeWithoutResult(status -> write.accept(cachedTasks.get(0), cachedUsers));
+
+            Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+            long hits = statistics.getDomainDataRegionStatistics(Task.class.getName()).getHitCount();
+            newTransaction.executeWithoutResult(status -> entityManager.find(Task.class, cachedTasks.get(1).getId()));
+            assertEquals(hits + 1, statistics.getDomainDataRegionStatistics(Task.class.getName()).getHitCount());
+        } finally {
+            newTransaction.executeWithoutResult(status -> {
+                taskRepository.deleteAllById(cachedTasks.stream().map(Task::getId).toList());
+                userRepository.deleteAllById(cachedUsers.stream().map(User::getId).toList());
+            });
+        }
+    }
+
     @Test
     void getId_ShouldReturnOkStatusAndTaskId() throws Exception {
         Map<String, Long> response = new HashMap<>();
@@ -197,6 +271,20 @@ class TaskFieldControllerIntegrationTest {
                 .andExpect(content().json(objectMapper.writeValueAsString(response)));
     }
 
+    @Test
+    void getTitle_WhenIfNoneMatchIsCurrent_ShouldReturnNotModifiedStatus() throws Exception {
+        String eTag = mockMvc.perform(get("/api/tasks/{id}/title", tasks.get(1).getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/tasks/{id}/title", tasks.get(1).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     void getTitle_WhenTaskNotFound_ShouldReturnNotFoundStatus() throws Exception {
         mockMvc.perform(get("/api/tasks/{id}/title", Long.MAX_VALUE)
@@ -328,6 +416,24 @@ class TaskFieldControllerIntegrationTest {
                 .andExpect(content().json(objectMapper.writeValueAsString(response)));
     }
 
+    @Test
+    void getAssignees_WhenTaskHasNoAssignees_ShouldReturnOkStatusAndEmptyList() throws Exception {
+        Task task = taskRepository.save(Task.builder()
+                .title("TestTask3")
+                .description("task 3")
+                .priority(TaskPriority.LOW)
+                .status(TaskStatus.PENDING)
+                .author(users.get(0))
+                .assignees(new LinkedHashSet<>())
+                .comments(new ArrayList<>())
+                .build());
+
+        mockMvc.perform(get("/api/tasks/{id}/assignees", task.getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.assignees").isEmpty());
+    }
+
     @Test
     void getAssignees_WhenTaskNotFound_ShouldReturnNotFoundStatus() throws Exception {
         mockMvc.perform(get("/api/tasks/{id}/assignees", Long.MAX_VALUE)
@@ -348,6 +454,7 @@ class TaskFieldControllerIntegrationTest {
 
         mockMvc.perform(put("/api/tasks/{id}/title", tasks.get(0).getId())
                         .header("Authorization", "Bearer " + token)
+                        .header(TaskFieldController.PREFER, TaskFieldController.RETURN_REPRESENTATION)
                         .param("title", title))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
@@ -355,6 +462,119 @@ class TaskFieldControllerIntegrationTest {
 
     }
 
+    @Test
+    void updateTitle_WhenTaskChangedConcurrently_ShouldReturnConflictStatus() throws Exception {
+        // the other change is committed by its own transaction while the test transaction holds the old version
+        TransactionTemplate newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        User author = newTransaction.execute(status -> userRepository.save(
+                User.builder().name("racing").email("racing@mail.test").password("Password").build()));
+        Task task = newTransaction.execute(status -> taskRepository.save(
+                Task.builder().title("RacingTask").status(TaskStatus.PENDING).priority(TaskPriority.LOW)
+                        .author(author).assignees(new LinkedHashSet<>()).comments(new ArrayList<>()).build()));
+        try {
+            entityManager.find(Task.class, task.getId());
+            newTransaction.executeWithoutResult(status ->
+                    taskService.updateTaskTitleById(task.getId(), "Concurrent title", author, null));
+
+            // no If-Match, so only the version checked by the UPDATE detects the other change
+            mockMvc.perform(put("/api/tasks/{id}/title", task.getId())
+                            .header("Authorization", "Bearer " + jwtProvider.generateToken(author))
+                            .param("title", "Lost title"))
+                    .andExpect(status().isConflict());
+        } finally {
+            newTransaction.executeWithoutResult(status -> {
+                taskRepository.deleteById(task.getId());
+                userRepository.deleteById(author.getId());
+            });
+        }
+    }
+
+    @Test
+    void updateUserName_ShouldKeepTasksNotShowingTheUserInSecondLevelCache() {
+        assertWriteKeepsOtherTaskCached((task, users) ->
+                userService.updateUserNameByEmail(users.get(1).getEmail(), "renamed"));
+    }
+
+    @Test
+    void updateTitle_ShouldKeepOtherTasksInSecondLevelCache() {
+        assertWriteKeepsOtherTaskCached((task, users) ->
+                taskService.updateTaskTitleById(task.getId(), "New title", users.get(0), task.getVersion()));
+    }
+
+    @Test
+    void updateTitle_WhenIfMatchIsCurrent_ShouldReturnNoContentStatusAndETagOfNewVersion() throws Exception {
+        String eTag = mockMvc.perform(get("/api/tasks/{id}/title", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String newETag = mockMvc.perform(put("/api/tasks/{id}/title", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .param("title", "New Test Title"))
+                .andExpect(status().isNoContent())
+                .andExpect(content().string(""))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(eTag, newETag);
+
+        mockMvc.perform(get("/api/tasks/{id}/title", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.IF_NONE_MATCH, newETag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void updateTitle_WhenIfMatchIsStale_ShouldReturnPreconditionFailedStatusAndKeepTitle() throws Exception {
+        String eTag = mockMvc.perform(put("/api/tasks/{id}/title", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .param("title", "First Title"))
+                .andExpect(status().isNoContent())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(put("/api/tasks/{id}/title", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .param("title", "Second Title"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(put("/api/tasks/{id}/title", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .param("title", "Lost Title"))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/api/tasks/{id}/title", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Second Title"));
+    }
+
+    @Test
+    void updateTitle_WhenIfMatchIsNotETag_ShouldReturnPreconditionFailedStatus() throws Exception {
+        mockMvc.perform(put("/api/tasks/{id}/title", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.IF_MATCH, "W/\"0\"")
+                        .param("title", "New Test Title"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void updateStatus_WhenRepresentationIsPreferred_ShouldReturnETagOfReturnedTask() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(put("/api/tasks/{id}/status", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .header(TaskFieldController.PREFER, TaskFieldController.RETURN_REPRESENTATION)
+                        .param("status-value", "3"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(TaskFieldController.PREFERENCE_APPLIED, TaskFieldController.RETURN_REPRESENTATION))
+                .andReturn().getResponse();
+
+        mockMvc.perform(get("/api/tasks/{id}/status", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.IF_NONE_MATCH, response.getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     void updateTitle_WithEmptyTitleInput_ShouldReturnBadRequestStatus() throws Exception {
         String title = null;
@@ -412,6 +632,7 @@ class TaskFieldControllerIntegrationTest {
 
         mockMvc.perform(put("/api/tasks/{id}/description", tasks.get(0).getId())
                         .header("Authorization", "Bearer " + token)
+                        .header(TaskFieldController.PREFER, TaskFieldController.RETURN_REPRESENTATION)
                         .param("description", description))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
@@ -428,6 +649,16 @@ class TaskFieldControllerIntegrationTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void updateDescription_WhenDescriptionIsEmpty_ShouldClearItLikeNullInPatch() throws Exception {
+        mockMvc.perform(put("/api/tasks/{id}/description", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .param("description", ""))
+                .andExpect(status().isNoContent());
+
+        assertEquals("", taskRepository.findById(tasks.get(0).getId()).get().getDescription());
+    }
+
     @Test
     void updateDescription_WhenNotFoundTask_ShouldReturnBadRequestStatus() throws Exception {
         String description = "New Test description";
@@ -464,6 +695,7 @@ class TaskFieldControllerIntegrationTest {
 
         mockMvc.perform(put("/api/tasks/{id}/status", tasks.get(0).getId())
                         .header("Authorization", "Bearer " + token)
+                        .header(TaskFieldController.PREFER, TaskFieldController.RETURN_REPRESENTATION)
                         .param("status-value", statusValue))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
@@ -526,6 +758,7 @@ class TaskFieldControllerIntegrationTest {
 
         mockMvc.perform(put("/api/tasks/{id}/priority", tasks.get(0).getId())
                         .header("Authorization", "Bearer " + token)
+                        .header(TaskFieldController.PREFER, TaskFieldController.RETURN_REPRESENTATION)
                         .param("priority-value", priorityValue))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
@@ -581,6 +814,139 @@ class TaskFieldControllerIntegrationTest {
                 .andExpect(status().isForbidden());
     }
 
+    @Test
+    void patchTask_WhenAllFieldsGiven_ShouldUpdateThemWithOneVersion() throws Exception {
+        String eTag = mockMvc.perform(get("/api/tasks/{id}/title", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String newETag = mockMvc.perform(patch("/api/tasks/{id}", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(TaskFieldController.MERGE_PATCH_JSON)
+                        .content("""
+                                {"title": "New Test Title", "description": "New description",
+                                 "status-value": 3, "priority-value": 1}"""))
+                .andExpect(status().isNoContent())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        Task task = taskRepository.findById(tasks.get(0).getId()).get();
+        assertEquals("\"" + task.getVersion() + "\"", newETag);
+        assertEquals(Long.parseLong(eTag.replace("\"", "")) + 1, task.getVersion());
+        assertEquals("New Test Title", task.getTitle());
+        assertEquals("New description", task.getDescription());
+        assertEquals(TaskStatus.getByValue(3), task.getStatus());
+        assertEquals(TaskPriority.getByValue(1), task.getPriority());
+    }
+
+    @Test
+    void patchTask_WhenDescriptionIsNull_ShouldClearItAndKeepMissingFields() throws Exception {
+        mockMvc.perform(patch("/api/tasks/{id}", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .header(TaskFieldController.PREFER, TaskFieldController.RETURN_REPRESENTATION)
+                        .contentType(TaskFieldController.MERGE_PATCH_JSON)
+                        .content("{\"description\": null, \"priority-value\": 3}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("TestTask1"))
+                .andExpect(jsonPath("$.description").value(""))
+                .andExpect(jsonPath("$.priority.value").value(3))
+                .andExpect(jsonPath("$.status.value").value(TaskStatus.IN_PROGRESS.getValue()));
+
+        assertEquals("", taskRepository.findById(tasks.get(0).getId()).get().getDescription());
+    }
+
+    @Test
+    void patchTask_ShouldKeepOtherTasksInSecondLevelCache() {
+        TaskPatchRequest patch = TaskPatchRequest.builder()
+                .title(Optional.of("New title"))
+                .priorityValue(Optional.of(3))
+                .build();
+        assertWriteKeepsOtherTaskCached((task, users) ->
+                taskService.patchTaskById(task.getId(), patch, users.get(0), task.getVersion()));
+    }
+
+    @Test
+    void patchTask_WhenAssigneeChangesStatus_ShouldReturnNoContentStatus() throws Exception {
+        String assigneeToken = jwtProvider.generateToken(users.get(2));
+
+        mockMvc.perform(patch("/api/tasks/{id}", tasks.get(1).getId())
+                        .header("Authorization", "Bearer " + assigneeToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status-value\": 2}"))
+                .andExpect(status().isNoContent());
+
+        assertEquals(TaskStatus.getByValue(2), taskRepository.findById(tasks.get(1).getId()).get().getStatus());
+    }
+
+    @Test
+    void patchTask_WhenAssigneeChangesStatusAndTitle_ShouldReturnBadRequestStatus() throws Exception {
+        String assigneeToken = jwtProvider.generateToken(users.get(2));
+
+        mockMvc.perform(patch("/api/tasks/{id}", tasks.get(1).getId())
+                        .header("Authorization", "Bearer " + assigneeToken)
+                        .contentType(TaskFieldController.MERGE_PATCH_JSON)
+                        .content("{\"status-value\": 2, \"title\": \"New Test Title\"}"))
+                .andExpect(status().isBadRequest());
+
+        Task task = taskRepository.findById(tasks.get(1).getId()).get();
+        assertEquals(TaskStatus.COMPLETED, task.getStatus());
+        assertEquals("TestTask2", task.getTitle());
+    }
+
+    @Test
+    void patchTask_WhenIfMatchIsStale_ShouldReturnPreconditionFailedStatus() throws Exception {
+        String eTag = mockMvc.perform(get("/api/tasks/{id}/title", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(put("/api/tasks/{id}/title", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .param("title", "First Title"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(patch("/api/tasks/{id}", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(TaskFieldController.MERGE_PATCH_JSON)
+                        .content("{\"title\": \"Lost Title\"}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void patchTask_WhenTitleIsNull_ShouldReturnBadRequestStatus() throws Exception {
+        mockMvc.perform(patch("/api/tasks/{id}", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(TaskFieldController.MERGE_PATCH_JSON)
+                        .content("{\"title\": null}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void patchTask_WhenNoFieldsGiven_ShouldReturnBadRequestStatus() throws Exception {
+        mockMvc.perform(patch("/api/tasks/{id}", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(TaskFieldController.MERGE_PATCH_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void patchTask_WhenNotFoundTask_ShouldReturnNotFoundStatus() throws Exception {
+        mockMvc.perform(patch("/api/tasks/{id}", Long.MAX_VALUE)
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(TaskFieldController.MERGE_PATCH_JSON)
+                        .content("{\"title\": \"New Test Title\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void addAssignee_ShouldKeepOtherTasksInSecondLevelCache() {
+        assertWriteKeepsOtherTaskCached((task, users) -> taskService.appendAssigneesInTask(task.getId(),
+                List.of(users.get(1).getId()), List.of(), users.get(0), task.getVersion()));
+    }
+
     @Test
     void addAssignee_WhenValidAssignIdInput_ShouldReturnOkStatusAndTaskResponseWithNewAssignee() throws Exception {
         String assigneeId = users.get(3).getId().toString();
@@ -598,6 +964,51 @@ class TaskFieldControllerIntegrationTest {
                 .andExpect(content().json(objectMapper.writeValueAsString(taskResponse)));
     }
 
+    @Test
+    void addAssignee_WithManyIdsAndEmails_ShouldAddAllAssigneesInOneCall() throws Exception {
+        mockMvc.perform(post("/api/tasks/{id}/assignees", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .param("assignee-id", users.get(3).getId().toString(), users.get(1).getId().toString())
+                        .param("assignee-email", users.get(0).getEmail()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.assignees.length()").value(4));
+    }
+
+    @Test
+    void addAssignee_WhenAllAlreadyAssigned_ShouldKeepETag() throws Exception {
+        String eTag = mockMvc.perform(get("/api/tasks/{id}/assignees", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(post("/api/tasks/{id}/assignees", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .param("assignee-id", users.get(1).getId().toString(), users.get(2).getId().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.assignees.length()").value(2))
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+    }
+
+    @Test
+    void addAssignee_WhenIfMatchIsStale_ShouldReturnPreconditionFailedStatus() throws Exception {
+        String eTag = mockMvc.perform(get("/api/tasks/{id}/assignees", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(post("/api/tasks/{id}/assignees", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .param("assignee-id", users.get(3).getId().toString()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/tasks/{id}/assignees", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .param("assignee-email", users.get(1).getEmail()))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     void addAssignee_WhenAssignIdInputAndAssignExist_ShouldReturnOkStatusAndTaskResponseWithOldListOfAssignees() throws Exception {
         String assigneeId = users.get(2).getId().toString();
@@ -756,6 +1167,15 @@ class TaskFieldControllerIntegrationTest {
                 .andExpect(content().json(objectMapper.writeValueAsString(taskResponse)));
     }
 
+    @Test
+    void deleteAssignee_WithManyEmails_ShouldDeleteAllAssigneesInOneCall() throws Exception {
+        mockMvc.perform(delete("/api/tasks/{id}/assignees", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .param("assignee-email", users.get(1).getEmail(), users.get(2).getEmail()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.assignees").isEmpty());
+    }
+
     @Test
     void deleteAssignee_WhenAssignIdInputAndAssignNonExist_ShouldReturnBadRequestStatus() throws Exception {
         String assigneeId = users.get(3).getId().toString();
@@ -889,21 +1309,108 @@ class TaskFieldControllerIntegrationTest {
     }
 
     @Test
-    void addComment_WhenValidCommentTextInput_ShouldReturnOkStatusAndTaskResponseWithNewComment() throws Exception {
+    void addComment_WhenValidCommentTextInput_ShouldReturnCreatedStatusAndCommentWithLocation() throws Exception {
         String commentText = "Valid comment";
         int sizeBefore = tasks.get(1).getComments().size();
 
-        String responseContent = mockMvc.perform(post("/api/tasks/{id}/comments", tasks.get(1).getId())
+        MockHttpServletResponse response = mockMvc.perform(post("/api/tasks/{id}/comments", tasks.get(1).getId())
                         .header("Authorization", "Bearer " + token)
                         .param("comment-text", commentText))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.text").value(commentText))
+                .andExpect(jsonPath("$.commentator.id").value(users.get(0).getId()))
+                .andExpect(jsonPath("$.commentator.email").value(users.get(0).getEmail()))
+                .andReturn().getResponse();
+
+        CommentResponse comment = objectMapper.readValue(response.getContentAsString(), CommentResponse.class);
+        assertEquals("http://localhost/api/tasks/" + tasks.get(1).getId() + "/comments/" + comment.getId(),
+                response.getHeader(HttpHeaders.LOCATION));
+
+        mockMvc.perform(get(response.getHeader(HttpHeaders.LOCATION))
+                        .header("Authorization", "Bearer " + token))
                 .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON)).andReturn().getResponse().getContentAsString();
+                .andExpect(jsonPath("$.id").value(comment.getId()))
+                .andExpect(jsonPath("$.text").value(commentText));
 
-        TaskResponse response = objectMapper.readValue(responseContent, TaskResponse.class);
+        mockMvc.perform(get("/api/tasks/{id}", tasks.get(1).getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments-count").value(sizeBefore + 1));
+    }
 
-        assertNotNull(response);
-        assertEquals(sizeBefore + 1, response.getComments().size());
-        assertEquals(tasks.get(1).getId(), response.getId());
+    @Test
+    void addComment_WhenCommentatorWasRenamedAfterToken_ShouldReturnStoredName() throws Exception {
+        users.get(0).setName("renamed");
+        userRepository.saveAndFlush(users.get(0));
+
+        mockMvc.perform(post("/api/tasks/{id}/comments", tasks.get(1).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .param("comment-text", "Valid comment"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.commentator.name").value("renamed"));
+    }
+
+    @Test
+    void addComment_WhenCommentsWereFetched_ShouldChangeETagOfComments() throws Exception {
+        String eTag = mockMvc.perform(get("/api/tasks/{id}/comments", tasks.get(1).getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(post("/api/tasks/{id}/comments", tasks.get(1).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .param("comment-text", "Valid comment"))
+                .andExpect(status().isCreated());
+
+        String newETag = mockMvc.perform(get("/api/tasks/{id}/comments", tasks.get(1).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(eTag, newETag);
+    }
+
+    @Test
+    void addComment_WhenIfMatchIsStale_ShouldReturnPreconditionFailedStatus() throws Exception {
+        String eTag = mockMvc.perform(get("/api/tasks/{id}/comments", tasks.get(1).getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(post("/api/tasks/{id}/comments", tasks.get(1).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .param("comment-text", "First comment"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/tasks/{id}/comments", tasks.get(1).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .param("comment-text", "Second comment"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void addComment_WhenTaskNotFound_ShouldReturnNotFoundStatus() throws Exception {
+        mockMvc.perform(post("/api/tasks/{id}/comments", Long.MAX_VALUE)
+                        .header("Authorization", "Bearer " + token)
+                        .param("comment-text", "Valid comment"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void addComment_ShouldKeepOtherTasksInSecondLevelCache() {
+        assertWriteKeepsOtherTaskCached((task, users) -> taskService.appendCommentInTask(task.getId(),
+                CommentDto.builder().text("Cached comment").build(), users.get(0), task.getVersion()));
+    }
+
+    @Test
+    void getComment_WhenCommentBelongsToAnotherTask_ShouldReturnNotFoundStatus() throws Exception {
+        mockMvc.perform(get("/api/tasks/{id}/comments/{commentId}", tasks.get(0).getId(),
+                        tasks.get(1).getComments().get(0).getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -978,6 +1485,18 @@ class TaskFieldControllerIntegrationTest {
         assertEquals(sizeBefore, task.get().getComments().size());
     }
 
+    @Test
+    void deleteComment_WhenCommentBelongsToAnotherTask_ShouldReturnNotFoundStatus() throws Exception {
+        Long commentId = tasks.get(1).getComments().get(0).getId();
+
+        mockMvc.perform(delete("/api/tasks/{id}/comments", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .param("comment-id", String.valueOf(commentId)))
+                .andExpect(status().isNotFound());
+
+        assertTrue(commentRepository.existsById(commentId));
+    }
+
     @Test
     void deleteComment_WhenEmptyCommentIdInput_ShouldReturnBadRequestStatus() throws Exception {
         String commentId = null;
@@ -1016,4 +1535,65 @@ class TaskFieldControllerIntegrationTest {
                         .param("comment-id", commentId))
                 .andExpect(status().isForbidden());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getComments_ShouldReturnCommentsPageByPageOldestFirst() throws Exception {
+        String nextCursor = mockMvc.perform(get("/api/tasks/{id}/comments", tasks.get(1).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments.length()").value(2))
+                .andExpect(jsonPath("$.comments[0].text").value("Comment 4"))
+                .andExpect(jsonPath("$.comments[1].text").value("Comment 6"))
+                .andExpect(header().exists(TaskController.NEXT_CURSOR))
+                .andReturn().getResponse().getHeader(TaskController.NEXT_CURSOR);
+
+        mockMvc.perform(get("/api/tasks/{id}/comments", tasks.get(1).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .param("cursor", nextCursor)
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments.length()").value(1))
+                .andExpect(jsonPath("$.comments[0].text").value("Comment 5"))
+                .andExpect(header().doesNotExist(TaskController.NEXT_CURSOR));
+    }
+
+    @Test
+    void getComments_WhenLastCommentOfPageWasDeleted_ShouldContinueAfterIt() throws Exception {
+        String nextCursor = mockMvc.perform(get("/api/tasks/{id}/comments", tasks.get(1).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments[1].text").value("Comment 6"))
+                .andReturn().getResponse().getHeader(TaskController.NEXT_CURSOR);
+        Comment last = commentRepository.findAllByTaskId(tasks.get(1).getId()).stream()
+                .filter(comment -> comment.getText().equals("Comment 6"))
+                .findFirst().orElseThrow();
+        tasks.get(1).getComments().remove(last);
+        commentRepository.delete(last);
+        commentRepository.flush();
+
+        mockMvc.perform(get("/api/tasks/{id}/comments", tasks.get(1).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .param("cursor", nextCursor)
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments.length()").value(1))
+                .andExpect(jsonPath("$.comments[0].text").value("Comment 5"));
+    }
+
+    @Test
+    void getComments_WithInvalidCursor_ShouldReturnBadRequestStatus() throws Exception {
+        mockMvc.perform(get("/api/tasks/{id}/comments", tasks.get(1).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .param("cursor", "not a cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getComments_WhenTaskNotFound_ShouldReturnNotFoundStatus() throws Exception {
+        mockMvc.perform(get("/api/tasks/{id}/comments", Long.MAX_VALUE)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
+    }
+}
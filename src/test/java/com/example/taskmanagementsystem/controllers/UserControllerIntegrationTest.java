@@ -4,16 +4,23 @@ import com.example.taskmanagementsystem.dto.user.UserResponse;
 import com.example.taskmanagementsystem.dto.user.UserResponseConverter;
 import com.example.taskmanagementsystem.dto.task.TaskDtoConverter;
 import com.example.taskmanagementsystem.dto.task.TaskResponse;
+import com.example.taskmanagementsystem.models.Comment;
 import com.example.taskmanagementsystem.models.Task;
 import com.example.taskmanagementsystem.models.TaskPriority;
 import com.example.taskmanagementsystem.models.TaskStatus;
 import com.example.taskmanagementsystem.models.User;
+import com.example.taskmanagementsystem.repositories.CommentRepository;
 import com.example.taskmanagementsystem.repositories.TaskRepository;
 import com.example.taskmanagementsystem.repositories.UserRepository;
 import com.example.taskmanagementsystem.security.JwtProvider;
+import com.example.taskmanagementsystem.security.PrincipalCache;
+import com.example.taskmanagementsystem.services.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -22,13 +29,18 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
 
@@ -55,6 +67,9 @@ class UserControllerIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CommentRepository commentRepository;
+
     @Autowired
     private UserResponseConverter userResponseConverter;
 
@@ -70,15 +85,29 @@ class UserControllerIntegrationTest {
     @Autowired
     private JwtProvider jwtProvider;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private String token;
     private List<User> users;
     private List<Task> tasks;
 
     @BeforeEach
     void setUp() {
+        // the test data is rolled back, principals cached by previous tests point to removed users
+        principalCache.evictAll();
         userRepository.deleteAll();
         this.users = createUsers();
-        this.token = jwtProvider.generateToken(users.get(0).getEmail());
+        this.token = jwtProvider.generateToken(users.get(0));
         this.tasks = createTasks();
     }
 
@@ -100,7 +129,7 @@ class UserControllerIntegrationTest {
                         .priority(TaskPriority.MEDIUM)
                         .status(TaskStatus.IN_PROGRESS)
                         .author(users.get(0))
-                        .assignees(new ArrayList<>(List.of(users.get(1), users.get(2))))
+                        .assignees(new LinkedHashSet<>(List.of(users.get(1), users.get(2))))
                         .comments(new ArrayList<>())
                         .build(),
                 Task.builder()
@@ -109,7 +138,7 @@ class UserControllerIntegrationTest {
                         .priority(TaskPriority.HIGH)
                         .status(TaskStatus.IN_PROGRESS)
                         .author(users.get(0))
-                        .assignees(new ArrayList<>(List.of(users.get(2))))
+                        .assignees(new LinkedHashSet<>(List.of(users.get(2))))
                         .comments(new ArrayList<>())
                         .build(),
                 Task.builder()
@@ -118,7 +147,7 @@ class UserControllerIntegrationTest {
                         .priority(TaskPriority.LOW)
                         .status(TaskStatus.PENDING)
                         .author(users.get(0))
-                        .assignees(new ArrayList<>(List.of(users.get(0))))
+                        .assignees(new LinkedHashSet<>(List.of(users.get(0))))
                         .comments(new ArrayList<>())
                         .build(),
                 Task.builder()
@@ -127,7 +156,7 @@ class UserControllerIntegrationTest {
                         .priority(TaskPriority.MEDIUM)
                         .status(TaskStatus.IN_PROGRESS)
                         .author(users.get(2))
-                        .assignees(new ArrayList<>(List.of(users.get(1), users.get(2))))
+                        .assignees(new LinkedHashSet<>(List.of(users.get(1), users.get(2))))
                         .comments(new ArrayList<>())
                         .build(),
                 Task.builder()
@@ -136,7 +165,7 @@ class UserControllerIntegrationTest {
                         .priority(TaskPriority.LOW)
                         .status(TaskStatus.IN_PROGRESS)
                         .author(users.get(2))
-                        .assignees(new ArrayList<>(List.of(users.get(1), users.get(0))))
+                        .assignees(new LinkedHashSet<>(List.of(users.get(1), users.get(0))))
                         .comments(new ArrayList<>())
                         .build(),
                 Task.builder()
@@ -145,7 +174,7 @@ class UserControllerIntegrationTest {
                         .priority(TaskPriority.MEDIUM)
                         .status(TaskStatus.PENDING)
                         .author(users.get(2))
-                        .assignees(new ArrayList<>(List.of(users.get(0))))
+                        .assignees(new LinkedHashSet<>(List.of(users.get(0))))
                         .comments(new ArrayList<>())
                         .build(),
                 Task.builder()
@@ -154,7 +183,7 @@ class UserControllerIntegrationTest {
                         .priority(TaskPriority.LOW)
                         .status(TaskStatus.COMPLETED)
                         .author(users.get(2))
-                        .assignees(new ArrayList<>(List.of(users.get(2))))
+                        .assignees(new LinkedHashSet<>(List.of(users.get(2))))
                         .comments(new ArrayList<>())
                         .build()
         ));
@@ -188,6 +217,29 @@ class UserControllerIntegrationTest {
                 .andExpect(content().json(objectMapper.writeValueAsString(response)));
     }
 
+    @Test
+    void findById_WhenLoadedAgain_ShouldBeServedFromSecondLevelCache() {
+        // the cache only holds committed rows, so this user is created outside of the test transaction
+        TransactionTemplate newTransaction = new TransactionTemplate(transactionManager);
+        newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        User user = newTransaction.execute(status -> userRepository.save(User.builder()
+                .name("cached").email("cached@mail.test").password("Password").build()));
+        try {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            newTransaction.executeWithoutResult(status -> userService.findById(user.getId()));
+
+            long statements = statistics.getPrepareStatementCount();
+            long hits = statistics.getDomainDataRegionStatistics(User.class.getName()).getHitCount();
+
+            newTransaction.executeWithoutResult(status ->
+                    assertEquals(user.getEmail(), userService.findById(user.getId()).getEmail()));
+            assertEquals(statements, statistics.getPrepareStatementCount());
+            assertEquals(hits + 1, statistics.getDomainDataRegionStatistics(User.class.getName()).getHitCount());
+        } finally {
+            newTransaction.executeWithoutResult(status -> userRepository.deleteById(user.getId()));
+        }
+    }
+
     @Test
     void getUserById_WhenUserNonExist_ShouldReturnNotFoundStatus() throws Exception {
         mockMvc.perform(get("/api/users/{id}", Long.MAX_VALUE)
@@ -235,6 +287,32 @@ class UserControllerIntegrationTest {
                 .andExpect(status().isForbidden());
     }
 
+    @Test
+    void getMe_WhenTokenPayloadIsTampered_ShouldReturnForbiddenStatus() throws Exception {
+        mockMvc.perform(get("/api/users/me")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        String[] verifiedToken = token.split("\\.");
+        String[] otherToken = jwtProvider.generateToken(users.get(1)).split("\\.");
+        String tamperedToken = verifiedToken[0] + "." + otherToken[1] + "." + verifiedToken[2];
+
+        mockMvc.perform(get("/api/users/me")
+                        .header("Authorization", "Bearer " + tamperedToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void getMe_WhenTokenCarriesUserClaims_ShouldReturnOkStatusAndUserResponse() throws Exception {
+        UserResponse response = userResponseConverter.convertUserToResponse(users.get(0));
+        String jwtToken = jwtProvider.generateToken(users.get(0));
+
+        mockMvc.perform(get("/api/users/me")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk())
+                .andExpect(content().json(objectMapper.writeValueAsString(response)));
+    }
+
     @Test
     void getMe_UnauthorisedRequest_ShouldReturnForbiddenStatus() throws Exception {
         mockMvc.perform(get("/api/users/me/"))
@@ -312,6 +390,21 @@ class UserControllerIntegrationTest {
                 .andExpect(content().json(objectMapper.writeValueAsString(response)));
     }
 
+    @Test
+    void getTasksCreatedByMe_WithFields_ShouldReturnOnlyRequestedFields() throws Exception {
+        mockMvc.perform(get("/api/users/me/created-tasks")
+                        .param("fields", "title,priority")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(tasks.stream()
+                        .filter(task -> task.getAuthor().equals(users.get(0))).count()))
+                .andExpect(jsonPath("$[0].title").value(tasks.get(0).getTitle()))
+                .andExpect(jsonPath("$[0].priority.value").value(tasks.get(0).getPriority().getValue()))
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andExpect(jsonPath("$[0].assignees").doesNotExist())
+                .andExpect(jsonPath("$[0].comments").doesNotExist());
+    }
+
     @Test
     void getTasksCreatedByMe_UnauthorisedRequest_ShouldReturnForbiddenStatus() throws Exception {
         mockMvc.perform(get("/api/users/me/created-tasks"))
@@ -353,6 +446,58 @@ class UserControllerIntegrationTest {
                 .andExpect(content().json(objectMapper.writeValueAsString(response)));
     }
 
+    @Test
+    void updateName_WhenPrincipalIsCached_ShouldReturnNewNameOnNextRequest() throws Exception {
+        String name = "Valid Name";
+
+        mockMvc.perform(get("/api/users/me")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(put("/api/users/me/name")
+                        .header("Authorization", "Bearer " + token)
+                        .param("name", name))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/users/me")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value(name));
+    }
+
+    @Test
+    void updateName_ShouldChangeETagsOfTasksShowingTheUser() throws Exception {
+        commentRepository.save(Comment.builder()
+                .task(tasks.get(6))
+                .dateTime(LocalDateTime.now())
+                .commentator(users.get(1))
+                .text("Comment 1")
+                .build());
+        String eTag = mockMvc.perform(get("/api/tasks/{id}", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        Map<Long, Long> versions = new HashMap<>();
+        tasks.forEach(task -> versions.put(task.getId(), taskRepository.findVersionById(task.getId()).orElseThrow()));
+
+        mockMvc.perform(put("/api/users/me/name")
+                        .header("Authorization", "Bearer " + jwtProvider.generateToken(users.get(1)))
+                        .param("name", "Valid Name"))
+                .andExpect(status().isOk());
+
+        // the user is an assignee of tasks 1, 4 and 5 and a commentator of task 7
+        for (int i = 0; i < tasks.size(); i++) {
+            long increment = List.of(0, 3, 4, 6).contains(i) ? 1 : 0;
+            Long id = tasks.get(i).getId();
+            assertEquals(versions.get(id) + increment, taskRepository.findVersionById(id).orElseThrow());
+        }
+        mockMvc.perform(get("/api/tasks/{id}", tasks.get(0).getId())
+                        .header("Authorization", "Bearer " + token)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.assignees[?(@.id == %d)].name", users.get(1).getId()).value("Valid Name"));
+    }
+
     @Test
     void updateName_WhenEmptyNameInput_ShouldReturnBadRequestStatus() throws Exception {
         String name = null;
@@ -396,6 +541,20 @@ class UserControllerIntegrationTest {
                 .andExpect(content().json(objectMapper.writeValueAsString(response)));
     }
 
+    @Test
+    void updateEmail_WhenTokenCarriesUserClaims_ShouldRevokeTheToken() throws Exception {
+        String jwtToken = jwtProvider.generateToken(users.get(0));
+
+        mockMvc.perform(put("/api/users/me/email")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .param("email", "new-email@mail.test"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/users/me")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     void updateEmail_WhenEmailInputBelongsAnotherUser_ShouldReturnBadRequestStatus() throws Exception {
         String email = users.get(1).getEmail();
@@ -450,6 +609,41 @@ class UserControllerIntegrationTest {
         assertTrue(passwordEncoder.matches(password, users.get(0).getPassword()));
     }
 
+    @Test
+    void updatePassword_WhenTokenCarriesUserClaims_ShouldRevokeTheToken() throws Exception {
+        String jwtToken = jwtProvider.generateToken(users.get(0));
+
+        mockMvc.perform(put("/api/users/me/password")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .param("password", "new-password"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/users/me")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/users/me")
+                        .header("Authorization", "Bearer " + jwtProvider.generateToken(users.get(0))))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void updatePassword_WhenTokenCarriesEmailOnly_ShouldRevokeTheToken() throws Exception {
+        String jwtToken = jwtProvider.generateToken(users.get(0).getEmail());
+
+        mockMvc.perform(get("/api/users/me")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(put("/api/users/me/password")
+                        .header("Authorization", "Bearer " + jwtToken)
+                        .param("password", "new-password"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/users/me")
+                        .header("Authorization", "Bearer " + jwtToken))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     void updatePassword_WhenEmptyPasswordInput_ShouldReturnBadRequestStatus() throws Exception {
         String password = null;
@@ -0,0 +1,62 @@
+package com.example.taskmanagementsystem.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final CountDownLatch hashingStarted = new CountDownLatch(1);
+
+    private final CountDownLatch releaseHashing = new CountDownLatch(1);
+
+    private final PasswordEncoder delegate = mock(PasswordEncoder.class);
+
+    private final BoundedPasswordEncoder passwordEncoder = new BoundedPasswordEncoder(delegate, 1, 1, meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        releaseHashing.countDown();
+        passwordEncoder.shutdown();
+    }
+
+    @Test
+    void encode_ShouldReturnHashOfDelegateAndRecordDuration() {
+        when(delegate.encode("password")).thenReturn("hash");
+
+        assertEquals("hash", passwordEncoder.encode("password"));
+        assertEquals(1, meterRegistry.get("password.hashing.duration").tag("operation", "encode").timer().count());
+    }
+
+    @Test
+    void matches_WhenPoolAndQueueAreFull_ShouldRejectAtOnce() throws Exception {
+        when(delegate.matches(anyString(), anyString())).thenAnswer(invocation -> {
+            hashingStarted.countDown();
+            return releaseHashing.await(10, TimeUnit.SECONDS);
+        });
+
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> passwordEncoder.matches("password", "hash"));
+        assertTrue(hashingStarted.await(10, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> passwordEncoder.matches("password", "hash"));
+        while (meterRegistry.get("executor.queued").tag("name", "password.hashing").gauge().value() < 1)
+            Thread.onSpinWait();
+
+        assertThrows(RejectedExecutionException.class, () -> passwordEncoder.matches("password", "hash"));
+        assertEquals(1, meterRegistry.get("password.hashing.rejected").counter().count());
+
+        releaseHashing.countDown();
+        assertTrue(running.get(10, TimeUnit.SECONDS));
+        assertTrue(queued.get(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.taskmanagementsystem.security;
+
+import com.example.taskmanagementsystem.models.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-request cost of the token verification done by JwtFilter:
+ * the former double parse with a new parser per call, a single parse with the prebuilt parser,
+ * a token missing from the verified-token cache, which pays the cache lookup and the full parse,
+ * and a repeated token served from that cache.
+ * Run with {@code mvn test-compile exec:exec
+ * -Dbenchmark=com.example.taskmanagementsystem.security.JwtProviderBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtProviderBenchmark {
+
+    private static final String SECRET = "secret";
+
+    private JwtProvider jwtProvider;
+    private JwtParser parser;
+    private Cache<String, JwtProvider.VerifiedToken> verifiedTokens;
+    private String token;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        jwtProvider = new JwtProvider();
+        ReflectionTestUtils.setField(jwtProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtProvider, "tokenCacheMaximumSize", 10_000L);
+        jwtProvider.init();
+        parser = Jwts.parser().setSigningKey(SECRET);
+        verifiedTokens = (Cache<String, JwtProvider.VerifiedToken>) ReflectionTestUtils.getField(jwtProvider, "verifiedTokens");
+        token = jwtProvider.generateToken(User.builder().id(1L).name("user").email("user@mail.test").tokenVersion(1L).build());
+        jwtProvider.getVerifiedSubject(token);
+    }
+
+    @Benchmark
+    public String doubleParse() {
+        Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token);
+        return Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String singleParse() {
+        // the signature is verified on every call, as for a token seen for the first time
+        return parser.parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String cacheMiss() {
+        verifiedTokens.invalidate(token);
+        return jwtProvider.getVerifiedSubject(token);
+    }
+
+    @Benchmark
+    public String cacheHit() {
+        return jwtProvider.getVerifiedSubject(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtProviderBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
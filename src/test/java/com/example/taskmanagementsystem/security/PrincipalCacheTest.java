@@ -0,0 +1,50 @@
+package com.example.taskmanagementsystem.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrincipalCacheTest {
+
+    private final AuthenticatedUser oldUser = new AuthenticatedUser(1L, "maksim1@mail.test", "maksim1");
+    private final AuthenticatedUser newUser = new AuthenticatedUser(1L, "maksim1@mail.test", "renamed");
+
+    private PrincipalCache principalCache;
+
+    @BeforeEach
+    void setUp() {
+        principalCache = new PrincipalCache();
+        ReflectionTestUtils.setField(principalCache, "maximumSize", 10L);
+        ReflectionTestUtils.setField(principalCache, "expireAfterWrite", Duration.ofMinutes(5));
+        principalCache.createCache();
+        principalCache.get(oldUser.getEmail(), email -> oldUser);
+    }
+
+    @Test
+    void evict_WhenInTransaction_ShouldKeepPrincipalUntilCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            principalCache.evict(oldUser.getEmail());
+            // a request served before the commit still sees the committed user
+            assertSame(oldUser, principalCache.get(oldUser.getEmail(), email -> newUser));
+
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+            assertSame(newUser, principalCache.get(oldUser.getEmail(), email -> newUser));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void evict_WhenNoTransaction_ShouldEvictAtOnce() {
+        principalCache.evict(oldUser.getEmail());
+
+        assertSame(newUser, principalCache.get(oldUser.getEmail(), email -> newUser));
+    }
+}
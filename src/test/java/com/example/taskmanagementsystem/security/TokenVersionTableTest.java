@@ -0,0 +1,37 @@
+package com.example.taskmanagementsystem.security;
+
+import com.example.taskmanagementsystem.models.User;
+import com.example.taskmanagementsystem.repositories.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenVersionTableTest {
+
+    @Mock
+    UserRepository userRepository;
+
+    @InjectMocks
+    TokenVersionTable tokenVersionTable;
+
+    @Test
+    void isCurrent_WhenUserNeverChangedVersion_ShouldAcceptOnlyVersionZero() {
+        assertTrue(tokenVersionTable.isCurrent(1L, 0L));
+        assertFalse(tokenVersionTable.isCurrent(1L, 1L));
+        assertFalse(tokenVersionTable.isCurrent(1L, null));
+    }
+
+    @Test
+    void isCurrent_WhenVersionIsAboveLongCache_ShouldCompareByValue() {
+        tokenVersionTable.update(User.builder().id(1L).tokenVersion(1000).build());
+
+        // boxed apart from the stored version, outside the cached Long range -128..127
+        assertTrue(tokenVersionTable.isCurrent(1L, Long.valueOf(1000)));
+        assertFalse(tokenVersionTable.isCurrent(1L, Long.valueOf(999)));
+    }
+}
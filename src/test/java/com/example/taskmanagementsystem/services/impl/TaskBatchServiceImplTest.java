@@ -0,0 +1,98 @@
+package com.example.taskmanagementsystem.services.impl;
+
+import com.example.taskmanagementsystem.dto.task.TaskOperation;
+import com.example.taskmanagementsystem.dto.task.TaskOperationResult;
+import com.example.taskmanagementsystem.dto.task.TaskOperationType;
+import com.example.taskmanagementsystem.dto.task.TaskPatchRequest;
+import com.example.taskmanagementsystem.models.Task;
+import com.example.taskmanagementsystem.models.User;
+import com.example.taskmanagementsystem.services.TaskService;
+import jakarta.persistence.OptimisticLockException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskBatchServiceImplTest {
+
+    @Mock
+    TaskService taskService;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    TaskBatchServiceImpl taskBatchService;
+
+    private final User user = User.builder().id(1L).name("maksim1").email("maksim1@mail.test").password("****").build();
+
+    @Test
+    void executeOperations_WhenChunkFailsToCommit_ShouldReportItsOperationsFailedAndStop() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        doNothing()
+                .doThrow(new ObjectOptimisticLockingFailureException(Task.class, 2L))
+                .when(transactionManager).commit(any());
+        when(taskService.patchTaskById(any(), any(), eq(user), any())).thenReturn(1L);
+        TaskPatchRequest patch = TaskPatchRequest.builder().title(Optional.of("New title")).build();
+        List<TaskOperation> operations = List.of(
+                TaskOperation.builder().op(TaskOperationType.PATCH).taskId(1L).patch(patch).build(),
+                TaskOperation.builder().op(TaskOperationType.PATCH).taskId(2L).patch(patch).build(),
+                TaskOperation.builder().op(TaskOperationType.PATCH).taskId(3L).patch(patch).build(),
+                TaskOperation.builder().op(TaskOperationType.PATCH).taskId(4L).patch(patch).build(),
+                TaskOperation.builder().op(TaskOperationType.PATCH).taskId(5L).patch(patch).build());
+
+        List<TaskOperationResult> results = taskBatchService.executeOperations(operations, 2, user);
+
+        assertEquals(List.of(200, 200, 409, 409, 424), results.stream().map(TaskOperationResult::getStatus).toList());
+        assertTrue(results.get(2).getError().startsWith("Rolled back, the chunk failed to commit"));
+        assertEquals("Not executed after operation 3", results.get(4).getError());
+        verify(taskService, times(4)).patchTaskById(any(), any(), eq(user), any());
+    }
+
+    @Test
+    void executeOperations_WhenFlushFindsConcurrentChange_ShouldReturnConflictResult() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        // a flush in the service is not translated by Spring
+        when(taskService.patchTaskById(any(), any(), eq(user), any())).thenThrow(new OptimisticLockException());
+        List<TaskOperation> operations = List.of(TaskOperation.builder().op(TaskOperationType.PATCH).taskId(1L)
+                .patch(TaskPatchRequest.builder().title(Optional.of("New title")).build()).build());
+
+        List<TaskOperationResult> results = taskBatchService.executeOperations(operations, null, user);
+
+        assertEquals(409, results.get(0).getStatus());
+    }
+
+    @Test
+    void executeOperations_WhenAssigneesAndCommentsChange_ShouldReturnVersionsWithoutLoadingTasks() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(taskService.appendTaskAssigneesById(1L, List.of(2L), List.of(), user, null)).thenReturn(5L);
+        when(taskService.removeTaskAssigneesById(1L, List.of(), List.of("maksim2@mail.test"), user, 5L)).thenReturn(6L);
+        when(taskService.removeTaskCommentById(1L, 3L, user, 6L)).thenReturn(7L);
+        List<TaskOperation> operations = List.of(
+                TaskOperation.builder().op(TaskOperationType.ADD_ASSIGNEES).taskId(1L)
+                        .assigneeIds(List.of(2L)).build(),
+                TaskOperation.builder().op(TaskOperationType.REMOVE_ASSIGNEES).taskId(1L).expectedVersion(5L)
+                        .assigneeEmails(List.of("maksim2@mail.test")).build(),
+                TaskOperation.builder().op(TaskOperationType.REMOVE_COMMENT).taskId(1L).expectedVersion(6L)
+                        .commentId(3L).build());
+
+        List<TaskOperationResult> results = taskBatchService.executeOperations(operations, null, user);
+
+        assertEquals(List.of(5L, 6L, 7L), results.stream().map(TaskOperationResult::getVersion).toList());
+        verify(taskService, never()).appendAssigneesInTask(any(), any(), any(), any(), any());
+        verify(taskService, never()).removeAssigneesInTask(any(), any(), any(), any(), any());
+        verify(taskService, never()).removeCommentByIdInTask(any(), any(), any(), any());
+    }
+}
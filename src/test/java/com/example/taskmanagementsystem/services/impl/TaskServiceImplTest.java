@@ -1,15 +1,20 @@
 package com.example.taskmanagementsystem.services.impl;
 
+import com.example.taskmanagementsystem.dto.task.TaskBulkUpdateRequest;
 import com.example.taskmanagementsystem.dto.task.TaskDto;
 import com.example.taskmanagementsystem.dto.task.TaskDtoConverter;
+import com.example.taskmanagementsystem.dto.task.TaskFieldSelection;
 import com.example.taskmanagementsystem.models.Task;
 import com.example.taskmanagementsystem.models.TaskPriority;
 import com.example.taskmanagementsystem.models.TaskStatus;
 import com.example.taskmanagementsystem.models.User;
 import com.example.taskmanagementsystem.repositories.TaskRepository;
+import com.example.taskmanagementsystem.repositories.projections.TaskAuthorIdView;
 import com.example.taskmanagementsystem.services.CommentService;
 import com.example.taskmanagementsystem.services.UserService;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.Tuple;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -36,6 +41,9 @@ class TaskServiceImplTest {
     @Mock
     CommentService commentService;
 
+    @Mock
+    EntityManager entityManager;
+
     @InjectMocks
     TaskServiceImpl taskService;
 
@@ -52,7 +60,7 @@ class TaskServiceImplTest {
                 .priority(TaskPriority.MEDIUM)
                 .status(TaskStatus.IN_PROGRESS)
                 .author(user1)
-                .assignees(new ArrayList<>(List.of(user2, user3)))
+                .assignees(new LinkedHashSet<>(List.of(user2, user3)))
                 .build();
 
         Task task2 = Task.builder()
@@ -62,7 +70,7 @@ class TaskServiceImplTest {
                 .priority(TaskPriority.LOW)
                 .status(TaskStatus.COMPLETED)
                 .author(user2)
-                .assignees(new ArrayList<>(List.of(user1, user3)))
+                .assignees(new LinkedHashSet<>(List.of(user1, user3)))
                 .build();
 
         List<Task> tasks = List.of(task1, task2);
@@ -88,8 +96,8 @@ class TaskServiceImplTest {
                 .build();
 
         when(taskRepository.findAll()).thenReturn(tasks);
-        when(taskDtoConverter.convertEntityToDto(task1)).thenReturn(taskDto1);
-        when(taskDtoConverter.convertEntityToDto(task2)).thenReturn(taskDto2);
+        when(taskDtoConverter.convertEntityToDto(task1, new ArrayList<>(), 0L)).thenReturn(taskDto1);
+        when(taskDtoConverter.convertEntityToDto(task2, new ArrayList<>(), 0L)).thenReturn(taskDto2);
 
         List<TaskDto> result = taskService.findAllTasks();
 
@@ -99,7 +107,8 @@ class TaskServiceImplTest {
         assertEquals(task2.getId(), result.get(1).getId());
 
         verify(taskRepository, times(1)).findAll();
-        verify(taskDtoConverter, times(2)).convertEntityToDto(any(Task.class));
+        verify(commentService, times(1)).countCommentsByTaskIds(List.of(1L, 2L));
+        verify(taskDtoConverter, times(2)).convertEntityToDto(any(Task.class), anyList(), anyLong());
     }
 
     @Test
@@ -130,7 +139,7 @@ class TaskServiceImplTest {
                 .priority(TaskPriority.MEDIUM)
                 .status(TaskStatus.IN_PROGRESS)
                 .author(user1)
-                .assignees(new ArrayList<>(List.of(user2, user3)))
+                .assignees(new LinkedHashSet<>(List.of(user2, user3)))
                 .build();
 
         TaskDto taskDto = TaskDto.builder()
@@ -144,7 +153,7 @@ class TaskServiceImplTest {
                 .build();
 
         when(taskRepository.findById(id)).thenReturn(Optional.of(task));
-        when(taskDtoConverter.convertEntityToDto(task)).thenReturn(taskDto);
+        when(taskDtoConverter.convertEntityToDto(task, new ArrayList<>(), 0L)).thenReturn(taskDto);
 
         TaskDto result = taskService.findTaskById(id);
 
@@ -152,7 +161,7 @@ class TaskServiceImplTest {
         assertEquals(taskDto, result);
 
         verify(taskRepository, times(1)).findById(id);
-        verify(taskDtoConverter, times(1)).convertEntityToDto(any(Task.class));
+        verify(taskDtoConverter, times(1)).convertEntityToDto(any(Task.class), anyList(), anyLong());
     }
 
     @Test
@@ -168,6 +177,41 @@ class TaskServiceImplTest {
         verify(taskRepository, times(1)).findById(id);
     }
 
+    @Test
+    void findTaskById_WithFieldsOnly_ShouldSelectFieldsWithoutLoadingAssociations() {
+        long id = 1L;
+        TaskFieldSelection selection = TaskFieldSelection.of(List.of("title"), null);
+
+        Tuple row = mock(Tuple.class);
+        when(row.get("id", Long.class)).thenReturn(id);
+        when(row.get("title", String.class)).thenReturn("TestTask");
+        when(taskRepository.findFieldsBy(any(), eq(selection.getFields()), any())).thenReturn(List.of(row));
+
+        TaskDto result = taskService.findTaskById(id, true, selection);
+
+        assertEquals(id, result.getId());
+        assertEquals("TestTask", result.getTitle());
+        assertNull(result.getDescription());
+        assertNull(result.getAuthor());
+        assertNull(result.getAssignees());
+        assertNull(result.getComments());
+
+        verify(taskRepository, never()).findById(id);
+        verify(taskRepository, never()).findAssigneesByIdIn(any());
+        verifyNoInteractions(commentService, taskDtoConverter);
+    }
+
+    @Test
+    void findTaskById_WithFieldsWhenTaskNonExist_ShouldThrowException() {
+        long id = 1L;
+
+        when(taskRepository.findFieldsBy(any(), any(), any())).thenReturn(List.of());
+
+        assertThrows(EntityNotFoundException.class,
+                () -> taskService.findTaskById(id, false, TaskFieldSelection.of(List.of("title"), null))
+        );
+    }
+
     @Test
     void createTask_WhenTaskDTOWithValidData_ShouldCreateTaskAndReturnTaskDto() {
         User user1 = User.builder().id(1L).name("maksim1").email("maksim1@mail.test").password("****").build();
@@ -181,7 +225,7 @@ class TaskServiceImplTest {
                 .priority(TaskPriority.MEDIUM)
                 .status(TaskStatus.IN_PROGRESS)
                 .author(user1)
-                .assignees(new ArrayList<>(List.of(user2, user3)))
+                .assignees(new LinkedHashSet<>(List.of(user2, user3)))
                 .build();
 
         TaskDto taskDto = TaskDto.builder()
@@ -206,8 +250,8 @@ class TaskServiceImplTest {
                 )
                 .build();
 
-        when(userService.findById(user2.getId())).thenReturn(user2);
-        when(userService.findByEmail(user3.getEmail())).thenReturn(user3);
+        when(userService.findAllByIdsAndEmails(Set.of(user2.getId()), Set.of(user3.getEmail())))
+                .thenReturn(List.of(user2, user3));
         when(taskDtoConverter.convertDtoToEntity(taskDto)).thenReturn(task);
         when(taskRepository.save(task)).thenReturn(task);
         when(taskDtoConverter.convertEntityToDto(task)).thenReturn(resultTaskDto);
@@ -219,6 +263,57 @@ class TaskServiceImplTest {
         verify(taskDtoConverter, times(1)).convertDtoToEntity(any(TaskDto.class));
         verify(taskRepository, times(1)).save(any(Task.class));
         verify(taskDtoConverter, times(1)).convertEntityToDto(any(Task.class));
+        verify(userService, never()).findById(any());
+        verify(userService, never()).findByEmail(any());
+        verifyNoInteractions(commentService);
+        assertEquals(List.of(user2, user3), List.copyOf(task.getAssignees()));
+    }
+
+    @Test
+    void createTask_WhenAssigneeGivenByIdAndByEmail_ShouldAssignItOnce() {
+        User user1 = User.builder().id(1L).name("maksim1").email("maksim1@mail.test").password("****").build();
+        User user2 = User.builder().id(2L).name("maksim2").email("maksim2@mail.test").password("****").build();
+        Task task = Task.builder().id(1L).title("TestTask").author(user1).build();
+
+        TaskDto taskDto = TaskDto.builder()
+                .title("TestTask")
+                .author(user1)
+                .assignees(List.of(
+                        User.builder().id(user2.getId()).build(),
+                        User.builder().email(user2.getEmail()).build())
+                )
+                .build();
+
+        when(userService.findAllByIdsAndEmails(Set.of(user2.getId()), Set.of(user2.getEmail())))
+                .thenReturn(List.of(user2, user2));
+        when(taskDtoConverter.convertDtoToEntity(taskDto)).thenReturn(task);
+        when(taskRepository.save(task)).thenReturn(task);
+
+        taskService.createTask(taskDto);
+
+        assertEquals(List.of(user2), List.copyOf(task.getAssignees()));
+    }
+
+    @Test
+    void removeAssigneesInTask_WhenOneOfThemIsNotAssigned_ShouldThrowExceptionAndKeepVersion() {
+        User user1 = User.builder().id(1L).name("maksim1").email("maksim1@mail.test").password("****").build();
+        User user2 = User.builder().id(2L).name("maksim2").email("maksim2@mail.test").password("****").build();
+        User user3 = User.builder().id(3L).name("maksim2").email("maksim3@mail.test").password("****").build();
+        Task task = Task.builder()
+                .id(1L)
+                .version(0L)
+                .author(user1)
+                .assignees(new LinkedHashSet<>(List.of(user2)))
+                .build();
+
+        when(entityManager.find(Task.class, 1L)).thenReturn(task);
+        when(userService.findAllByIdsAndEmails(List.of(2L), List.of(user3.getEmail()))).thenReturn(List.of(user2, user3));
+
+        assertThrows(IllegalArgumentException.class, () ->
+                taskService.removeAssigneesInTask(1L, List.of(2L), List.of(user3.getEmail()), user1, null));
+
+        assertEquals(Set.of(user2), task.getAssignees());
+        verify(entityManager, never()).flush();
     }
 
     @Test
@@ -254,7 +349,7 @@ class TaskServiceImplTest {
                 .priority(TaskPriority.MEDIUM)
                 .status(TaskStatus.IN_PROGRESS)
                 .author(user1)
-                .assignees(new ArrayList<>())
+                .assignees(new LinkedHashSet<>())
                 .build();
 
         TaskDto taskDto = TaskDto.builder()
@@ -313,31 +408,50 @@ class TaskServiceImplTest {
     }
 
     @Test
-    void deleteTaskById_WhenTaskExist_ShouldReturnTaskDto() {
+    void createTasks_WhenBatchIsEmpty_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> taskService.createTasks(List.of())
+        );
+
+        verify(taskRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void createTasks_WhenOneTaskDTOWithoutTitle_ShouldThrowExceptionAndSaveNothing() {
         User user1 = User.builder().id(1L).name("maksim1").email("maksim1@mail.test").password("****").build();
-        User user2 = User.builder().id(2L).name("maksim2").email("maksim2@mail.test").password("****").build();
-        User user3 = User.builder().id(3L).name("maksim2").email("maksim3@mail.test").password("****").build();
 
-        long id = 1L;
+        TaskDto taskDto1 = TaskDto.builder()
+                .title("TestTask1")
+                .author(user1)
+                .assignees(List.of())
+                .build();
 
-        Task task = Task.builder()
-                .id(id)
-                .title("TestTask")
-                .description("task")
-                .priority(TaskPriority.MEDIUM)
-                .status(TaskStatus.IN_PROGRESS)
+        TaskDto taskDto2 = TaskDto.builder()
                 .author(user1)
-                .assignees(new ArrayList<>(List.of(user2, user3)))
+                .assignees(List.of())
                 .build();
 
-        when(taskRepository.findById(id)).thenReturn(Optional.of(task));
-        when(commentService.deleteAllCommentsInTask(task)).thenReturn(task);
+        assertThrows(IllegalArgumentException.class,
+                () -> taskService.createTasks(List.of(taskDto1, taskDto2))
+        );
 
-        taskService.deleteTaskById(id, user1);
+        verify(taskRepository, never()).saveAll(any());
+    }
 
+    @Test
+    void deleteTaskById_WhenTaskExist_ShouldReturnTaskDto() {
+        User user1 = User.builder().id(1L).name("maksim1").email("maksim1@mail.test").password("****").build();
 
-        verify(taskRepository, times(1)).findById(id);
-        verify(taskRepository, times(1)).delete(any(Task.class));
+        long id = 1L;
+
+        when(taskRepository.findAuthorIdsByIdIn(Set.of(id))).thenReturn(List.of(createTaskAuthorIdView(id, user1.getId())));
+        when(taskRepository.deleteAllByIdIn(Set.of(id))).thenReturn(1);
+
+        taskService.deleteTaskById(id, user1);
+
+        verify(commentService, times(1)).deleteAllCommentsInTasks(Set.of(id));
+        verify(taskRepository, times(1)).deleteAssigneesByTaskIdIn(Set.of(id));
+        verify(taskRepository, times(1)).deleteAllByIdIn(Set.of(id));
     }
 
     @Test
@@ -346,39 +460,88 @@ class TaskServiceImplTest {
 
         long id = 1L;
 
-        when(taskRepository.findById(id)).thenReturn(Optional.empty());
+        when(taskRepository.findAuthorIdsByIdIn(Set.of(id))).thenReturn(List.of());
 
         assertThrows(EntityNotFoundException.class,
                 () -> taskService.deleteTaskById(id, user1)
         );
 
-        verify(taskRepository, times(1)).findById(id);
+        verify(taskRepository, never()).deleteAllByIdIn(any());
     }
 
     @Test
     void deleteTaskById_WhenAnotherAuthor_ShouldThrowException() {
         User user1 = User.builder().id(1L).name("maksim1").email("maksim1@mail.test").password("****").build();
         User user2 = User.builder().id(2L).name("maksim2").email("maksim2@mail.test").password("****").build();
-        User user3 = User.builder().id(3L).name("maksim2").email("maksim3@mail.test").password("****").build();
 
         long id = 1L;
 
-        Task task = Task.builder()
-                .id(id)
-                .title("TestTask")
-                .description("task")
-                .priority(TaskPriority.MEDIUM)
-                .status(TaskStatus.IN_PROGRESS)
-                .author(user2)
-                .assignees(new ArrayList<>(List.of(user2, user3)))
-                .build();
-
-        when(taskRepository.findById(id)).thenReturn(Optional.of(task));
+        when(taskRepository.findAuthorIdsByIdIn(Set.of(id))).thenReturn(List.of(createTaskAuthorIdView(id, user2.getId())));
 
         assertThrows(IllegalArgumentException.class,
                 () -> taskService.deleteTaskById(id,user1)
         );
 
-        verify(taskRepository, times(1)).findById(id);
+        verify(commentService, never()).deleteAllCommentsInTasks(any());
+        verify(taskRepository, never()).deleteAllByIdIn(any());
+    }
+
+    @Test
+    void deleteTasksByIds_WhenTasksExist_ShouldDeleteWithOneStatementPerTable() {
+        User user1 = User.builder().id(1L).name("maksim1").email("maksim1@mail.test").password("****").build();
+
+        when(taskRepository.findAuthorIdsByIdIn(Set.of(1L, 2L))).thenReturn(List.of(
+                createTaskAuthorIdView(1L, user1.getId()),
+                createTaskAuthorIdView(2L, user1.getId())));
+        when(taskRepository.deleteAllByIdIn(Set.of(1L, 2L))).thenReturn(2);
+
+        assertEquals(2, taskService.deleteTasksByIds(List.of(1L, 2L, 1L), user1));
+
+        verify(commentService, times(1)).deleteAllCommentsInTasks(Set.of(1L, 2L));
+        verify(taskRepository, times(1)).deleteAssigneesByTaskIdIn(Set.of(1L, 2L));
+        verify(taskRepository, never()).findById(any());
+    }
+
+    private TaskAuthorIdView createTaskAuthorIdView(Long id, Long authorId) {
+        return new TaskAuthorIdView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getAuthorId() {
+                return authorId;
+            }
+        };
+    }
+
+    @Test
+    void updateTasksByFilter_WithNewStatus_ShouldRunOneUpdateForUser() {
+        User user1 = User.builder().id(1L).name("maksim1").email("maksim1@mail.test").password("****").build();
+        TaskBulkUpdateRequest request = TaskBulkUpdateRequest.builder()
+                .statusValue(TaskStatus.PENDING.getValue())
+                .authorId(2L)
+                .newStatusValue(TaskStatus.COMPLETED.getValue())
+                .build();
+
+        when(taskRepository.updateStatusByFilter(TaskStatus.COMPLETED, TaskStatus.PENDING, null, 2L, null, 1L))
+                .thenReturn(3);
+
+        assertEquals(3, taskService.updateTasksByFilter(request, user1));
+        verify(taskRepository, never()).findAll();
+    }
+
+    @Test
+    void updateTasksByFilter_WithSeveralChanges_ShouldThrowException() {
+        User user1 = User.builder().id(1L).name("maksim1").email("maksim1@mail.test").password("****").build();
+        TaskBulkUpdateRequest request = TaskBulkUpdateRequest.builder()
+                .newStatusValue(TaskStatus.COMPLETED.getValue())
+                .newPriorityValue(TaskPriority.HIGH.getValue())
+                .build();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> taskService.updateTasksByFilter(request, user1)
+        );
     }
-}
\ No newline at end of file
+}